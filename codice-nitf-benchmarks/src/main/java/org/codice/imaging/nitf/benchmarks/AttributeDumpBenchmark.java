@@ -0,0 +1,81 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.header.NitfHeader;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
+import org.codice.imaging.nitf.nitfpeek.NitfPeek;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares NitfPeek's line per attribute text output with its JSON Lines records, both produced
+ * by NitfPeek itself from a file parsed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class AttributeDumpBenchmark {
+    private NitfHeader header;
+
+    private final List<ImageSegment> imageSegments = new ArrayList<>();
+
+    private ByteArrayOutputStream buffer;
+
+    private PrintStream out;
+
+    @Setup
+    public void parseNitf() throws IOException, NitfFormatException {
+        File directory = Files.createTempDirectory("dump-benchmark").toFile();
+        File nitf = new SyntheticNitfFlow()
+                .size(512)
+                .blockSize(512)
+                .compression(ImageCompression.NOTCOMPRESSED)
+                .write(new File(directory, "dump.ntf"));
+
+        new NitfParserInputFlowImpl()
+                .file(nitf)
+                .headerOnly()
+                .fileHeader(parsedHeader -> header = parsedHeader)
+                .forEachImageSegment(imageSegments::add);
+
+        nitf.delete();
+        directory.delete();
+        buffer = new ByteArrayOutputStream();
+        out = new PrintStream(buffer);
+    }
+
+    @Benchmark
+    public int text() {
+        buffer.reset();
+        NitfPeek.printText(header, imageSegments, out);
+        out.flush();
+        return buffer.size();
+    }
+
+    @Benchmark
+    public String jsonLines() {
+        return NitfPeek.toJsonLine("benchmark.ntf", header, imageSegments);
+    }
+}
@@ -0,0 +1,65 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ImageIO encoders used by the viewer to save images and thumbnails. Images are
+ * written to memory so that disk speed doesn't affect the results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ImageWriteBenchmark {
+    @Param({"png", "jpg"})
+    private String format;
+
+    @Param({"2048"})
+    private int size;
+
+    private BufferedImage image;
+
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void createImage() {
+        image = new BufferedImage(size, size, BufferedImage.TYPE_3BYTE_BGR);
+        int[] pixel = new int[3];
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pixel[0] = x & 0xff;
+                pixel[1] = y & 0xff;
+                pixel[2] = (x + y) & 0xff;
+                image.getRaster().setPixel(x, y, pixel);
+            }
+        }
+
+        output = new ByteArrayOutputStream(size * size * 3);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        ImageIO.write(image, format, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,184 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+
+/**
+ * Writes a corpus of synthetic NITFs for load testing NitfPeek and the viewer. Each file's size,
+ * block size, band count, compression and TRE count are picked at random from the given lists,
+ * using a generator seeded from the corpus seed and the file's number, so the same arguments
+ * always produce the same corpus.
+ */
+public final class NitfCorpusGenerator {
+    private NitfCorpusGenerator() {
+    }
+
+    public static void main(String[] args) throws ParseException, IOException, InterruptedException {
+        Options options = new Options();
+
+        options.addOption(Option.builder("o")
+                .hasArg()
+                .longOpt("output")
+                .desc("directory to write the corpus to.")
+                .build());
+        options.addOption(Option.builder("n")
+                .hasArg()
+                .longOpt("count")
+                .desc("number of files to write (default 100).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("sizes")
+                .desc("comma separated image sizes in pixels (default 256,1024,4096).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("blocks")
+                .desc("comma separated block sizes in pixels (default 256,1024).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("bands")
+                .desc("comma separated band counts (default 1,3).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("compression")
+                .desc("comma separated compressions, NOTCOMPRESSED or JPEG (default NOTCOMPRESSED,JPEG).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("tres")
+                .desc("comma separated numbers of image subheader TREs (default 0).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("tresize")
+                .desc("bytes of data in each TRE (default 64).")
+                .build());
+        options.addOption(Option.builder()
+                .hasArg()
+                .longOpt("seed")
+                .desc("seed for the corpus (default 0).")
+                .build());
+        options.addOption(Option.builder("t")
+                .hasArg()
+                .longOpt("threads")
+                .desc("number of files to write concurrently (default 1).")
+                .build());
+
+        CommandLine commandLine = new DefaultParser().parse(options, args);
+
+        if (!commandLine.hasOption("o")) {
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp("NitfCorpusGenerator <options>", options);
+            return;
+        }
+
+        File directory = new File(commandLine.getOptionValue("o"));
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Couldn't create " + directory);
+        }
+
+        int count = Integer.parseInt(commandLine.getOptionValue("n", "100"));
+        int[] sizes = parseInts(commandLine.getOptionValue("sizes", "256,1024,4096"));
+        int[] blockSizes = parseInts(commandLine.getOptionValue("blocks", "256,1024"));
+        int[] bandCounts = parseInts(commandLine.getOptionValue("bands", "1,3"));
+        int[] treCounts = parseInts(commandLine.getOptionValue("tres", "0"));
+        int treSize = Integer.parseInt(commandLine.getOptionValue("tresize", "64"));
+        long seed = Long.parseLong(commandLine.getOptionValue("seed", "0"));
+        int threads = Math.max(1, Integer.parseInt(commandLine.getOptionValue("t", "1")));
+        List<ImageCompression> compressions = new ArrayList<>();
+
+        for (String compression : commandLine.getOptionValue("compression", "NOTCOMPRESSED,JPEG").split(",")) {
+            ImageCompression imageCompression = ImageCompression.valueOf(compression.trim().toUpperCase());
+
+            if (imageCompression != ImageCompression.NOTCOMPRESSED && imageCompression != ImageCompression.JPEG) {
+                throw new ParseException("Unsupported compression: " + compression);
+            }
+
+            compressions.add(imageCompression);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        AtomicLong bytesWritten = new AtomicLong();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+
+            results.add(executor.submit(() -> {
+                Random random = new Random(seed + index);
+                int size = sizes[random.nextInt(sizes.length)];
+                int blockSize = Math.min(size, blockSizes[random.nextInt(blockSizes.length)]);
+                int bands = bandCounts[random.nextInt(bandCounts.length)];
+                ImageCompression compression = compressions.get(random.nextInt(compressions.size()));
+                int tres = treCounts[random.nextInt(treCounts.length)];
+
+                if (compression == ImageCompression.JPEG && bands != 1 && bands != 3) {
+                    compression = ImageCompression.NOTCOMPRESSED;
+                }
+
+                File file = new File(directory, String.format("synthetic_%06d_%s_%d_%d_%d.ntf",
+                        index, compression.name(), size, blockSize, bands));
+
+                new SyntheticNitfFlow()
+                        .size(size)
+                        .blockSize(blockSize)
+                        .bands(bands)
+                        .compression(compression)
+                        .tres(tres)
+                        .treSize(treSize)
+                        .write(file);
+
+                bytesWritten.addAndGet(file.length());
+                return null;
+            }));
+        }
+
+        executor.shutdown();
+        int failed = 0;
+
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                failed++;
+            }
+        }
+
+        double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+        System.err.println(String.format("%d files written, %d failed, %.1f MB in %.1f s",
+                count - failed, failed, bytesWritten.get() / (1024.0 * 1024.0), seconds));
+    }
+
+    private static int[] parseInts(String values) {
+        String[] fields = values.split(",");
+        int[] result = new int[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            result[i] = Integer.parseInt(fields[i].trim());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the header-only and all-data parse strategies on the same file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class ParseBenchmark {
+    @Param({"1024", "4096"})
+    private int size;
+
+    private File directory;
+
+    private File nitf;
+
+    @Setup
+    public void createNitf() throws IOException {
+        directory = Files.createTempDirectory("parse-benchmark").toFile();
+        nitf = new SyntheticNitfFlow()
+                .size(size)
+                .blockSize(1024)
+                .bands(3)
+                .compression(ImageCompression.NOTCOMPRESSED)
+                .write(new File(directory, "parse.ntf"));
+    }
+
+    @TearDown
+    public void deleteNitf() {
+        nitf.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void headerOnly(Blackhole blackhole) throws IOException, NitfFormatException {
+        new NitfParserInputFlowImpl()
+                .file(nitf)
+                .headerOnly()
+                .fileHeader(blackhole::consume)
+                .forEachImageSegment(blackhole::consume);
+    }
+
+    @Benchmark
+    public void allData(Blackhole blackhole) throws IOException, NitfFormatException {
+        new NitfParserInputFlowImpl()
+                .file(nitf)
+                .allData()
+                .fileHeader(blackhole::consume)
+                .forEachImageSegment(blackhole::consume);
+    }
+}
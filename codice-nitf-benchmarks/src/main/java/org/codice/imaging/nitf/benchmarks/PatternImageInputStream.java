@@ -0,0 +1,80 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * The uncompressed pixel data of a blocked test pattern, computed as it is read so that images
+ * of any size can be written without holding their data in memory. Single band images are laid
+ * out one block after another; multi-band images are pixel interleaved within each block.
+ */
+class PatternImageInputStream extends ImageInputStreamImpl {
+    private final int blockWidth;
+
+    private final int bands;
+
+    private final long bytesPerBlock;
+
+    private final int blocksPerRow;
+
+    private final long length;
+
+    PatternImageInputStream(int blockWidth, int blockHeight, int bands, int blocksPerRow,
+            int blocksPerColumn) {
+        this.blockWidth = blockWidth;
+        this.bands = bands;
+        this.blocksPerRow = blocksPerRow;
+        this.bytesPerBlock = (long) blockWidth * blockHeight * bands;
+        this.length = bytesPerBlock * blocksPerRow * blocksPerColumn;
+    }
+
+    /**
+     * The value of a pixel in the pattern: diagonal ramps that differ per band, offset per block
+     * so that block boundaries are visible.
+     */
+    static int sample(int x, int y, int band, int blockRow, int blockColumn) {
+        return (x + y * (band + 1) + (blockRow + blockColumn) * 32) & 0xff;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        return sampleAt(streamPos++);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        int available = (int) Math.min(count, length - streamPos);
+
+        for (int i = 0; i < available; i++) {
+            buffer[offset + i] = (byte) sampleAt(streamPos++);
+        }
+
+        return available;
+    }
+
+    private int sampleAt(long position) {
+        long block = position / bytesPerBlock;
+        int withinBlock = (int) (position % bytesPerBlock);
+        int pixel = withinBlock / bands;
+
+        return sample(pixel % blockWidth,
+                pixel / blockWidth,
+                withinBlock % bands,
+                (int) (block / blocksPerRow),
+                (int) (block % blocksPerRow));
+    }
+}
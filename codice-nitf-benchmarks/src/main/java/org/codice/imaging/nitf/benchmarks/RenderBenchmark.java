@@ -0,0 +1,95 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
+import org.codice.imaging.nitf.render.NitfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures NitfRenderer.render for each compression type the synthetic writer can produce. The
+ * file is opened and parsed again before every invocation so that each render starts from unread
+ * data, and closed again after it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class RenderBenchmark {
+    @Param({"NOTCOMPRESSED", "JPEG"})
+    private String compression;
+
+    @Param({"1", "3"})
+    private int bands;
+
+    @Param({"2048"})
+    private int size;
+
+    private File directory;
+
+    private File nitf;
+
+    private ImageInputStream input;
+
+    private ImageSegment imageSegment;
+
+    @Setup
+    public void createNitf() throws IOException {
+        directory = Files.createTempDirectory("render-benchmark").toFile();
+        nitf = new SyntheticNitfFlow()
+                .size(size)
+                .blockSize(512)
+                .bands(bands)
+                .compression(ImageCompression.valueOf(compression))
+                .write(new File(directory, "render.ntf"));
+    }
+
+    @Setup(Level.Invocation)
+    public void parseNitf() throws IOException, NitfFormatException {
+        input = new FileImageInputStream(nitf);
+        new NitfParserInputFlowImpl()
+                .imageInputStream(input)
+                .allData()
+                .forEachImageSegment(segment -> imageSegment = segment);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeNitf() throws IOException {
+        imageSegment = null;
+        input.close();
+    }
+
+    @TearDown
+    public void deleteNitf() {
+        nitf.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public BufferedImage render() throws IOException {
+        return new NitfRenderer().render(imageSegment);
+    }
+}
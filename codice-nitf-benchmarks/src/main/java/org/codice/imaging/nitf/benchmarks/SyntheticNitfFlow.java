@@ -0,0 +1,271 @@
+package org.codice.imaging.nitf.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.FileImageInputStream;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.header.NitfHeaderFactory;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.core.security.SecurityClassification;
+import org.codice.imaging.nitf.core.security.SecurityMetadata;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.codice.imaging.nitf.core.tre.TreFactory;
+import org.codice.imaging.nitf.core.tre.TreSource;
+import org.codice.imaging.nitf.fluent.impl.NitfCreationFlowImpl;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.codice.imaging.nitf.nitfbuilder.SecurityMetadataCreationFlow;
+
+/**
+ * Writes single image NITFs with a blocked test pattern, so that benchmarks and load tests don't
+ * depend on real imagery. Uncompressed pixel data is computed as it is written, so the size of
+ * the image is limited only by the NITF format. JPEG images must have 1 or 3 bands; their blocks
+ * are encoded one at a time into a temporary file, because the writer needs the length of the
+ * compressed data before it starts, and that file is read back as the image data.
+ */
+public final class SyntheticNitfFlow {
+    private static final String[] RGB_BANDS = {"R", "G", "B"};
+
+    private static final String TRE_TAG_PREFIX = "SYN";
+
+    private int rows = 1024;
+
+    private int columns = 1024;
+
+    private int blockWidth = 1024;
+
+    private int blockHeight = 1024;
+
+    private int bands = 1;
+
+    private ImageCompression compression = ImageCompression.NOTCOMPRESSED;
+
+    private int treCount = 0;
+
+    private int treSize = 64;
+
+    public SyntheticNitfFlow rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    public SyntheticNitfFlow columns(int columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    public SyntheticNitfFlow size(int size) {
+        return rows(size).columns(size);
+    }
+
+    public SyntheticNitfFlow blockSize(int blockWidth, int blockHeight) {
+        this.blockWidth = blockWidth;
+        this.blockHeight = blockHeight;
+        return this;
+    }
+
+    public SyntheticNitfFlow blockSize(int blockSize) {
+        return blockSize(blockSize, blockSize);
+    }
+
+    public SyntheticNitfFlow bands(int bands) {
+        this.bands = bands;
+        return this;
+    }
+
+    /**
+     * @param compression NOTCOMPRESSED or JPEG.
+     */
+    public SyntheticNitfFlow compression(ImageCompression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * @param treCount the number of TREs to add to the image subheader.
+     */
+    public SyntheticNitfFlow tres(int treCount) {
+        this.treCount = treCount;
+        return this;
+    }
+
+    /**
+     * @param treSize the number of bytes of data in each TRE.
+     */
+    public SyntheticNitfFlow treSize(int treSize) {
+        this.treSize = treSize;
+        return this;
+    }
+
+    /**
+     * @param file the file to write.
+     * @return the file written.
+     */
+    public File write(File file) throws IOException {
+        if (compression != ImageCompression.NOTCOMPRESSED && compression != ImageCompression.JPEG) {
+            throw new IllegalArgumentException("Unsupported compression: " + compression);
+        }
+
+        if (compression == ImageCompression.JPEG && bands != 1 && bands != 3) {
+            throw new IllegalArgumentException("JPEG images must have 1 or 3 bands, not " + bands);
+        }
+
+        int blocksPerRow = (columns + blockWidth - 1) / blockWidth;
+        int blocksPerColumn = (rows + blockHeight - 1) / blockHeight;
+        ImageInputStream imageData;
+        long imageDataLength;
+        File jpegFile = null;
+
+        if (compression == ImageCompression.JPEG) {
+            jpegFile = File.createTempFile("synthetic", ".jpg");
+            encodeJpegBlocks(blocksPerRow, blocksPerColumn, jpegFile);
+            imageData = new FileImageInputStream(jpegFile);
+            imageDataLength = jpegFile.length();
+        } else {
+            imageData = new PatternImageInputStream(blockWidth, blockHeight, bands, blocksPerRow,
+                    blocksPerColumn);
+            imageDataLength = imageData.length();
+        }
+
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+
+        ImageSegmentCreationFlow imageSegment = new ImageSegmentCreationFlow()
+                .identifier(name.substring(0, Math.min(name.length(), 10)))
+                .identifier2(name.substring(0, Math.min(name.length(), 80)))
+                .source("synthetic")
+                .rows(rows)
+                .columns(columns)
+                .pixelValueType(PixelValueType.INTEGER)
+                .representation(getRepresentation())
+                .category(bands == 1 || bands == 3 ? ImageCategory.VISUAL : ImageCategory.MULTISPECTRAL)
+                .actualBitsPerPixelPerBand(8)
+                .bitsPerPixelPerBand(8)
+                .pixelJustification(PixelJustification.RIGHT)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.NONE)
+                .compression(compression)
+                .mode(bands == 1 ? ImageMode.BLOCKINTERLEVE : ImageMode.PIXELINTERLEVE)
+                .blocksPerRow(blocksPerRow)
+                .blocksPerColumn(blocksPerColumn)
+                .pixelsPerBlockHorizontal(blockWidth)
+                .pixelsPerBlockVertical(blockHeight)
+                .displayLevel(1)
+                .attachmentLevel(0)
+                .magnification("1.0 ")
+                .fileType(FileType.NITF_TWO_ONE)
+                .securityMetadata(unclassified())
+                .imageData(imageData)
+                .imageDataLength(imageDataLength);
+
+        for (int i = 0; i < bands; i++) {
+            ImageBandImpl band = new ImageBandImpl();
+            band.setImageRepresentation(bands == 3 ? RGB_BANDS[i] : bands == 1 ? "M" : "");
+            band.setSubCategory("");
+            imageSegment.band(band);
+        }
+
+        for (int i = 0; i < treCount; i++) {
+            imageSegment.tre(createTre(i));
+        }
+
+        try {
+            new NitfCreationFlowImpl()
+                    .fileHeader(() -> NitfHeaderFactory.getDefault(FileType.NITF_TWO_ONE))
+                    .imageSegment(imageSegment)
+                    .write(file.getPath());
+        } finally {
+            imageData.close();
+
+            if (jpegFile != null && !jpegFile.delete()) {
+                jpegFile.deleteOnExit();
+            }
+        }
+
+        return file;
+    }
+
+    private ImageRepresentation getRepresentation() {
+        switch (bands) {
+        case 1:
+            return ImageRepresentation.MONOCHROME;
+        case 3:
+            return ImageRepresentation.RGBTRUECOLOUR;
+        default:
+            return ImageRepresentation.MULTIBAND;
+        }
+    }
+
+    private void encodeJpegBlocks(int blocksPerRow, int blocksPerColumn, File jpegFile) throws IOException {
+        BufferedImage block = new BufferedImage(blockWidth, blockHeight,
+                bands == 3 ? BufferedImage.TYPE_3BYTE_BGR : BufferedImage.TYPE_BYTE_GRAY);
+        WritableRaster raster = block.getRaster();
+        int[] pixel = new int[bands];
+
+        try (OutputStream data = new BufferedOutputStream(new FileOutputStream(jpegFile))) {
+            for (int blockRow = 0; blockRow < blocksPerColumn; blockRow++) {
+                for (int blockColumn = 0; blockColumn < blocksPerRow; blockColumn++) {
+                    for (int y = 0; y < blockHeight; y++) {
+                        for (int x = 0; x < blockWidth; x++) {
+                            for (int band = 0; band < bands; band++) {
+                                pixel[band] = PatternImageInputStream.sample(x, y, band, blockRow, blockColumn);
+                            }
+
+                            raster.setPixel(x, y, pixel);
+                        }
+                    }
+
+                    ImageIO.write(block, "jpg", data);
+                }
+            }
+        }
+    }
+
+    private Tre createTre(int index) {
+        Tre tre = TreFactory.getDefault(String.format("%s%03d", TRE_TAG_PREFIX, index % 1000),
+                TreSource.ImageExtendedSubheaderData);
+        byte[] rawData = new byte[treSize];
+        Arrays.fill(rawData, (byte) ('A' + index % 26));
+        tre.setRawData(rawData);
+        return tre;
+    }
+
+    private static Supplier<SecurityMetadata> unclassified() {
+        return new SecurityMetadataCreationFlow()
+                .classification(SecurityClassification.UNCLASSIFIED)
+                .classificationSystem("")
+                .codewords("")
+                .controlAndHandling("")
+                .releaseInstructions("")
+                .declassificationType("")
+                .declassificationDate("")
+                .declassificationExemption("")
+                .downgrade("")
+                .downgradeDate("")
+                .classificationText("")
+                .classificationAuthorityType("")
+                .classificationAuthority("")
+                .classificationReason("")
+                .sourceDate("")
+                .controlNumber("");
+    }
+}
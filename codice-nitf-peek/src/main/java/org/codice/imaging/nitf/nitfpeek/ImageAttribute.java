@@ -162,6 +162,10 @@ enum ImageAttribute {
     }
 
     public static String getTargetId(ImageSegment segment) {
+        if (segment.getImageTargetId() == null) {
+            return "";
+        }
+
         try {
             return segment.getImageTargetId()
                     .textValue()
@@ -174,6 +178,14 @@ enum ImageAttribute {
         return "";
     }
 
+    /**
+     * Whether the corners of the segment's ILOC can be read as latitude and longitude.
+     */
+    static boolean hasGeographicCoordinates(ImageSegment header) {
+        return header.getImageCoordinates() != null
+                && SUPPORTED_COORDINATE_REPRESENTATION_LIST.contains(header.getImageCoordinatesRepresentation());
+    }
+
     private static String getCoordinates(ImageSegment header) {
         if (header.getImageCoordinatesRepresentation() == ImageCoordinatesRepresentation.NONE) {
             return "NONE";
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Finds NITF files below a directory. Files are matched on their extension, ignoring case, and
+ * optionally on the NITF or NSIF signature in their first four bytes. Checking the signature means
+ * opening the file, so it is left to the consumer through matchesSignature, where it can run on
+ * the worker that processes the file rather than on the walking thread.
+ */
+class NitfFileWalker {
+    static final int DEFAULT_MAX_DEPTH = 5;
+
+    static final String DEFAULT_EXTENSIONS = "ntf,nsf,nitf";
+
+    static final String ANY_EXTENSION = "*";
+
+    private static final byte[][] SIGNATURES = {{'N', 'I', 'T', 'F'}, {'N', 'S', 'I', 'F'}};
+
+    private static final int SIGNATURE_LENGTH = 4;
+
+    private final int maxDepth;
+
+    private final Set<String> extensions = new HashSet<>();
+
+    private final boolean matchAnyExtension;
+
+    private final boolean checkSignature;
+
+    /**
+     * @param maxDepth the maximum number of directory levels to descend.
+     * @param extensions the file extensions to match, without the dot, or "*" for any file.
+     * @param checkSignature whether files must also start with the NITF or NSIF signature.
+     */
+    NitfFileWalker(int maxDepth, Collection<String> extensions, boolean checkSignature) {
+        this.maxDepth = maxDepth;
+        this.checkSignature = checkSignature;
+
+        for (String extension : extensions) {
+            this.extensions.add(extension.trim().toLowerCase(Locale.ROOT));
+        }
+
+        this.matchAnyExtension = this.extensions.contains(ANY_EXTENSION);
+    }
+
+    /**
+     * Passes every file with a matching extension to the consumer, which should check
+     * matchesSignature before processing it.
+     */
+    void walk(Path startPath, Consumer<Path> consumer) throws IOException {
+        Files.walkFileTree(startPath, EnumSet.noneOf(FileVisitOption.class), maxDepth,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        if (attributes.isRegularFile() && hasMatchingExtension(file)) {
+                            consumer.accept(file);
+                        }
+
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        System.err.println("WARNING: couldn't read '" + file + "': " + e.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+    }
+
+    private boolean hasMatchingExtension(Path file) {
+        if (matchAnyExtension) {
+            return true;
+        }
+
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+
+        return dot >= 0 && extensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if signatures aren't being checked or the file starts with the NITF or NSIF
+     * signature, and false, with a warning, if the file can't be read.
+     */
+    boolean matchesSignature(Path file) {
+        if (!checkSignature) {
+            return true;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(SIGNATURE_LENGTH);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // a file shorter than the signature can't be a NITF
+            }
+        } catch (IOException e) {
+            System.err.println("WARNING: couldn't read '" + file + "': " + e.getMessage());
+            return false;
+        }
+
+        if (buffer.hasRemaining()) {
+            return false;
+        }
+
+        for (byte[] signature : SIGNATURES) {
+            boolean matches = true;
+
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                matches &= buffer.get(i) == signature[i];
+            }
+
+            if (matches) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
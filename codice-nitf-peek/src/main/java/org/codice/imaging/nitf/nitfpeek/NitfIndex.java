@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A tab separated catalog of the file header and image subheader attributes of every NITF in a
+ * directory tree. The first line names the columns: FILE, SEGMENT, the NitfHeaderAttribute and
+ * ImageAttribute short names, then the image bounds as MINLON, MINLAT, MAXLON and MAXLAT.
+ * Queries are answered from the catalog alone, without reopening any NITF.
+ */
+class NitfIndex {
+    static final String FILE_COLUMN = "FILE";
+
+    static final String SEGMENT_COLUMN = "SEGMENT";
+
+    static final String[] BOUNDS_COLUMNS = {"MINLON", "MINLAT", "MAXLON", "MAXLAT"};
+
+    private NitfIndex() {
+    }
+
+    static List<String> columns() {
+        List<String> columns = new ArrayList<>();
+        columns.add(FILE_COLUMN);
+        columns.add(SEGMENT_COLUMN);
+
+        for (NitfHeaderAttribute attribute : NitfHeaderAttribute.values()) {
+            columns.add(attribute.getShortName());
+        }
+
+        for (ImageAttribute attribute : ImageAttribute.values()) {
+            columns.add(attribute.getShortName());
+        }
+
+        for (String boundsColumn : BOUNDS_COLUMNS) {
+            columns.add(boundsColumn);
+        }
+
+        return columns;
+    }
+
+    static void writeHeader(PrintStream out) {
+        out.print(String.join("\t", columns()));
+        out.print('\n');
+    }
+
+    /**
+     * Reads the rows of an existing index, grouped by file, so that an incremental scan can copy
+     * the rows of unchanged files into the new index. Returns an empty map if there is no index or
+     * it was written with different columns.
+     */
+    static Map<String, List<String>> readRows(Path indexFile) throws IOException {
+        Map<String, List<String>> rows = new HashMap<>();
+
+        if (!Files.exists(indexFile)) {
+            return rows;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, Charset.defaultCharset())) {
+            String headerLine = reader.readLine();
+
+            if (headerLine == null || !headerLine.equals(String.join("\t", columns()))) {
+                return rows;
+            }
+
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                String fileName = unescape(line.substring(0, Math.max(line.indexOf('\t'), 0)));
+                rows.computeIfAbsent(fileName, key -> new ArrayList<>()).add(line);
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Prints the name of every indexed file that has at least one image segment matching all of
+     * the filters and, when a bounding box is given, overlapping it. Each name is printed once, in
+     * the order of the file's first matching row, wherever the file's rows are in the index.
+     *
+     * @param indexFile the index to search.
+     * @param filters column short names mapped to the required value, compared ignoring case.
+     * @param boundingBox minLon, minLat, maxLon, maxLat, or null to match any location.
+     * @param out the stream to print matching file names to.
+     */
+    static void query(Path indexFile, Map<String, String> filters, double[] boundingBox,
+            PrintStream out) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, Charset.defaultCharset())) {
+            String headerLine = reader.readLine();
+
+            if (headerLine == null) {
+                return;
+            }
+
+            List<String> columns = split(headerLine);
+            int[] filterColumns = new int[filters.size()];
+            String[] filterValues = new String[filters.size()];
+            int filterCount = 0;
+
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                int column = columns.indexOf(filter.getKey().toUpperCase(Locale.ROOT));
+
+                if (column < 0) {
+                    throw new IllegalArgumentException("Unknown index column: " + filter.getKey());
+                }
+
+                filterColumns[filterCount] = column;
+                filterValues[filterCount] = filter.getValue();
+                filterCount++;
+            }
+
+            int boundsColumn = columns.indexOf(BOUNDS_COLUMNS[0]);
+            Set<String> matchingFiles = new LinkedHashSet<>();
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                List<String> row = split(line);
+
+                if (matches(row, filterColumns, filterValues)
+                        && intersects(row, boundsColumn, boundingBox)) {
+                    matchingFiles.add(unescape(row.get(0)));
+                }
+            }
+
+            matchingFiles.forEach(out::println);
+        }
+    }
+
+    private static boolean matches(List<String> row, int[] filterColumns, String[] filterValues) {
+        for (int i = 0; i < filterColumns.length; i++) {
+            if (filterColumns[i] >= row.size()
+                    || !unescape(row.get(filterColumns[i])).equalsIgnoreCase(filterValues[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean intersects(List<String> row, int boundsColumn, double[] boundingBox) {
+        if (boundingBox == null) {
+            return true;
+        }
+
+        if (boundsColumn < 0 || boundsColumn + BOUNDS_COLUMNS.length > row.size()
+                || row.get(boundsColumn).isEmpty()) {
+            return false;
+        }
+
+        double minLon = Double.parseDouble(row.get(boundsColumn));
+        double minLat = Double.parseDouble(row.get(boundsColumn + 1));
+        double maxLon = Double.parseDouble(row.get(boundsColumn + 2));
+        double maxLat = Double.parseDouble(row.get(boundsColumn + 3));
+
+        return minLon <= boundingBox[2] && maxLon >= boundingBox[0]
+                && minLat <= boundingBox[3] && maxLat >= boundingBox[1];
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        int tab;
+
+        while ((tab = line.indexOf('\t', start)) >= 0) {
+            fields.add(line.substring(start, tab));
+            start = tab + 1;
+        }
+
+        fields.add(line.substring(start));
+        return fields;
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        if (value.indexOf('\\') < 0 && value.indexOf('\t') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return value.replace("\\", "\\\\")
+                .replace("\t", "\\t")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        StringBuilder builder = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                builder.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+}
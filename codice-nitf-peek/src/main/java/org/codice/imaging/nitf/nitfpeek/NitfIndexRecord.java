@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.codice.imaging.nitf.core.header.NitfHeader;
+import org.codice.imaging.nitf.core.image.ImageCoordinatePair;
+import org.codice.imaging.nitf.core.image.ImageCoordinates;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+
+/**
+ * Collects the index rows for one NITF file: one row per image segment, or a single row without
+ * image values when the file has no image segments.
+ */
+class NitfIndexRecord {
+    private final String fileName;
+
+    private String[] headerValues = new String[NitfHeaderAttribute.values().length];
+
+    private final List<String[]> imageValues = new ArrayList<>();
+
+    NitfIndexRecord(String fileName) {
+        this.fileName = fileName;
+    }
+
+    void addFileHeader(NitfHeader header) {
+        NitfHeaderAttribute[] attributes = NitfHeaderAttribute.values();
+
+        for (int i = 0; i < attributes.length; i++) {
+            headerValues[i] = toText(attributes[i].getAccessorFunction().apply(header));
+        }
+    }
+
+    void addImageSegment(ImageSegment segment) {
+        ImageAttribute[] attributes = ImageAttribute.values();
+        String[] values = new String[attributes.length + NitfIndex.BOUNDS_COLUMNS.length];
+
+        for (int i = 0; i < attributes.length; i++) {
+            values[i] = toText(attributes[i].getAccessorFunction().apply(segment));
+        }
+
+        if (ImageAttribute.hasGeographicCoordinates(segment)) {
+            ImageCoordinates coordinates = segment.getImageCoordinates();
+            ImageCoordinatePair[] corners = {coordinates.getCoordinate00(),
+                    coordinates.getCoordinate0MaxCol(), coordinates.getCoordinateMaxRowMaxCol(),
+                    coordinates.getCoordinateMaxRow0()};
+
+            double minLat = Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE;
+            double maxLat = -Double.MAX_VALUE;
+            double maxLon = -Double.MAX_VALUE;
+
+            for (ImageCoordinatePair corner : corners) {
+                minLat = Math.min(minLat, corner.getLatitude());
+                minLon = Math.min(minLon, corner.getLongitude());
+                maxLat = Math.max(maxLat, corner.getLatitude());
+                maxLon = Math.max(maxLon, corner.getLongitude());
+            }
+
+            values[attributes.length] = Double.toString(minLon);
+            values[attributes.length + 1] = Double.toString(minLat);
+            values[attributes.length + 2] = Double.toString(maxLon);
+            values[attributes.length + 3] = Double.toString(maxLat);
+        }
+
+        imageValues.add(values);
+    }
+
+    void write(PrintStream out) {
+        if (imageValues.isEmpty()) {
+            writeRow(out, "", new String[0]);
+        }
+
+        for (int i = 0; i < imageValues.size(); i++) {
+            writeRow(out, Integer.toString(i), imageValues.get(i));
+        }
+    }
+
+    private void writeRow(PrintStream out, String segment, String[] segmentValues) {
+        StringBuilder row = new StringBuilder();
+        row.append(NitfIndex.escape(fileName)).append('\t').append(segment);
+
+        for (String value : headerValues) {
+            row.append('\t').append(NitfIndex.escape(value));
+        }
+
+        int segmentColumns = ImageAttribute.values().length + NitfIndex.BOUNDS_COLUMNS.length;
+
+        for (int i = 0; i < segmentColumns; i++) {
+            row.append('\t').append(i < segmentValues.length ? NitfIndex.escape(segmentValues[i]) : "");
+        }
+
+        out.print(row);
+        out.print('\n');
+    }
+
+    private static String toText(Serializable value) {
+        if (value == null) {
+            return "";
+        }
+
+        return value instanceof Date ? ((Date) value).toInstant().toString() : value.toString().trim();
+    }
+}
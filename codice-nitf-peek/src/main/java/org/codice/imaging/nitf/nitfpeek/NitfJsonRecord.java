@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.codice.imaging.nitf.core.header.NitfHeader;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+
+/**
+ * Builds a single line JSON document describing one NITF file. Attributes are keyed by their
+ * NITF short names, e.g. {"file":"a.ntf","header":{"FTITLE":"..."},"tres":{},"images":[{...}]}.
+ * Blank values are left out, in the same way as the text output.
+ */
+class NitfJsonRecord {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final StringBuilder json = new StringBuilder(INITIAL_CAPACITY);
+
+    private final StringBuilder images = new StringBuilder(INITIAL_CAPACITY);
+
+    NitfJsonRecord(String fileName) {
+        json.append("{\"file\":");
+        appendString(json, fileName);
+    }
+
+    void addFileHeader(NitfHeader header) {
+        json.append(",\"header\":{");
+        boolean first = true;
+
+        for (NitfHeaderAttribute attribute : NitfHeaderAttribute.values()) {
+            first = appendAttribute(json, first, attribute.getShortName(),
+                    attribute.getAccessorFunction().apply(header));
+        }
+
+        json.append('}');
+        json.append(",\"tres\":");
+        appendTres(json, header.getTREsFlat());
+    }
+
+    void addImageSegment(ImageSegment segment) {
+        images.append(images.length() == 0 ? '[' : ',');
+        images.append('{');
+        boolean first = true;
+
+        for (ImageAttribute attribute : ImageAttribute.values()) {
+            first = appendAttribute(images, first, attribute.getShortName(),
+                    attribute.getAccessorFunction().apply(segment));
+        }
+
+        images.append(first ? "" : ",");
+        images.append("\"tres\":");
+        appendTres(images, segment.getTREsFlat());
+        images.append('}');
+    }
+
+    String toJson() {
+        json.append(",\"images\":");
+        json.append(images.length() == 0 ? "[" : images);
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static boolean appendAttribute(StringBuilder builder, boolean first, String name,
+            Serializable value) {
+        if (value == null) {
+            return first;
+        }
+
+        String text = value instanceof Date ? ((Date) value).toInstant().toString() : value.toString();
+
+        if (StringUtils.isBlank(text)) {
+            return first;
+        }
+
+        if (!first) {
+            builder.append(',');
+        }
+
+        appendString(builder, name);
+        builder.append(':');
+        appendString(builder, text);
+        return false;
+    }
+
+    private static void appendTres(StringBuilder builder, Map<String, String> tres) {
+        builder.append('{');
+        boolean first = true;
+
+        if (tres != null) {
+            for (Map.Entry<String, String> tre : tres.entrySet()) {
+                first = appendAttribute(builder, first, tre.getKey(), tre.getValue());
+            }
+        }
+
+        builder.append('}');
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+            case '"':
+                builder.append("\\\"");
+                break;
+            case '\\':
+                builder.append("\\\\");
+                break;
+            case '\n':
+                builder.append("\\n");
+                break;
+            case '\r':
+                builder.append("\\r");
+                break;
+            case '\t':
+                builder.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+
+        builder.append('"');
+    }
+}
@@ -1,14 +1,27 @@
 package org.codice.imaging.nitf.nitfpeek;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileDescriptor;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -21,13 +34,48 @@ import org.apache.commons.lang.StringUtils;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.core.header.NitfHeader;
 import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.fluent.NitfParserParsingFlow;
+import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
+import org.codice.imaging.nitf.tiles.MappedFileImageInputStream;
 
 public class NitfPeek {
+    private static final int EXTRACT_BUFFER_SIZE = 256 * 1024;
+
+    private static final ThreadLocal<byte[]> EXTRACT_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[EXTRACT_BUFFER_SIZE]);
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final String JSON_LINES_FORMAT = "jsonl";
+
+    private static final String TEXT_FORMAT = "text";
+
+    private static final int QUICKLOOK_SIZE = 256;
+
     private static boolean dumpImageHeader = false;
 
     private static boolean extractImageData = false;
 
+    private static int threads = 1;
+
+    private static Path manifestFile = null;
+
+    private static boolean hashFiles = false;
+
+    private static NitfFileWalker fileWalker;
+
+    private static QuicklookWriter quicklookWriter = null;
+
+    /**
+     * What is written for each file parsed.
+     */
+    private enum OutputFormat {
+        TEXT,
+        JSON_LINES,
+        INDEX
+    }
+
     public static void main(String[] args)
             throws ParseException, IOException, java.text.ParseException, NitfFormatException {
         Options options = new Options();
@@ -54,15 +102,109 @@ public class NitfPeek {
                 .desc("extact the image data.")
                 .build();
 
+        Option threadsOption = Option.builder("t")
+                .hasArg()
+                .longOpt("threads")
+                .desc("number of files to parse concurrently when searching a directory.")
+                .build();
+
+        Option formatOption = Option.builder()
+                .hasArg()
+                .longOpt("format")
+                .argName(TEXT_FORMAT + "|" + JSON_LINES_FORMAT)
+                .desc("output format. 'jsonl' writes one JSON record per file.")
+                .build();
+
         options.addOption(fileOption);
         options.addOption(recursiveOption);
         options.addOption(imageHeaderOption);
         options.addOption(extractImageOption);
 
+        Option indexOption = Option.builder()
+                .hasArg()
+                .longOpt("index")
+                .argName("file")
+                .desc("write a metadata index of the NITFs found with -d to the given file.")
+                .build();
+
+        Option queryOption = Option.builder()
+                .hasArg()
+                .longOpt("query")
+                .argName("file")
+                .desc("list the files in the given index that match --where and --bbox.")
+                .build();
+
+        Option whereOption = Option.builder()
+                .hasArg()
+                .longOpt("where")
+                .argName("attribute=value")
+                .desc("only match images whose attribute (e.g. ICAT, IREP, ISCLAS) has the value.")
+                .build();
+
+        Option boundingBoxOption = Option.builder()
+                .hasArg()
+                .longOpt("bbox")
+                .argName("minLon,minLat,maxLon,maxLat")
+                .desc("only match images whose location overlaps the bounding box.")
+                .build();
+
+        Option manifestOption = Option.builder()
+                .hasArg()
+                .longOpt("manifest")
+                .argName("file")
+                .desc("only reparse files found with -d that are new or changed since the scan that wrote the manifest.")
+                .build();
+
+        Option hashOption = Option.builder()
+                .longOpt("hash")
+                .desc("also compare a fast hash of each file against the manifest.")
+                .build();
+
+        Option maxDepthOption = Option.builder()
+                .hasArg()
+                .longOpt("maxdepth")
+                .desc("number of directory levels to search with -d (default "
+                        + NitfFileWalker.DEFAULT_MAX_DEPTH + ").")
+                .build();
+
+        Option extensionsOption = Option.builder()
+                .hasArg()
+                .longOpt("extensions")
+                .desc("comma separated file extensions to search for with -d, ignoring case (default "
+                        + NitfFileWalker.DEFAULT_EXTENSIONS + "), or '" + NitfFileWalker.ANY_EXTENSION
+                        + "' for all files.")
+                .build();
+
+        Option sniffOption = Option.builder()
+                .longOpt("sniff")
+                .desc("only process files that start with the NITF or NSIF signature.")
+                .build();
+
+        Option thumbnailsOption = Option.builder()
+                .hasArg()
+                .longOpt("thumbnails")
+                .argName("directory")
+                .desc("instead of dumping headers, write a " + QUICKLOOK_SIZE
+                        + " pixel JPEG quicklook of each image to the given directory.")
+                .build();
+
+        options.addOption(threadsOption);
+        options.addOption(formatOption);
+        options.addOption(indexOption);
+        options.addOption(queryOption);
+        options.addOption(whereOption);
+        options.addOption(boundingBoxOption);
+        options.addOption(manifestOption);
+        options.addOption(hashOption);
+        options.addOption(maxDepthOption);
+        options.addOption(extensionsOption);
+        options.addOption(sniffOption);
+        options.addOption(thumbnailsOption);
+
         CommandLineParser commandLineParser = new DefaultParser();
         CommandLine commandLine = commandLineParser.parse(options, args);
 
-        if (!(commandLine.hasOption("f") || commandLine.hasOption("d"))) {
+        if (!(commandLine.hasOption("f") || commandLine.hasOption("d") || commandLine.hasOption("query"))) {
             HelpFormatter formatter = new HelpFormatter();
             formatter.printHelp( "NitfPeek <options>", options );
         }
@@ -77,25 +219,216 @@ public class NitfPeek {
             dumpImageHeader = true;
         }
 
-        if (commandLine.hasOption("f")) {
-            processSingleFile(FileSystems.getDefault()
-                    .getPath(commandLine.getOptionValue("f")).toFile() );
+        if (commandLine.hasOption("t")) {
+            threads = Math.max(1, Integer.parseInt(commandLine.getOptionValue("t")));
+        }
+
+        if (commandLine.hasOption("manifest")) {
+            manifestFile = FileSystems.getDefault().getPath(commandLine.getOptionValue("manifest"));
+        }
+
+        if (commandLine.hasOption("hash")) {
+            hashFiles = true;
+        }
+
+        if (commandLine.hasOption("thumbnails")) {
+            quicklookWriter = new QuicklookWriter(
+                    FileSystems.getDefault().getPath(commandLine.getOptionValue("thumbnails")), QUICKLOOK_SIZE);
+        }
+
+        fileWalker = new NitfFileWalker(parseMaxDepth(commandLine.getOptionValue("maxdepth")),
+                Arrays.asList(commandLine.getOptionValue("extensions", NitfFileWalker.DEFAULT_EXTENSIONS)
+                        .split(",")),
+                commandLine.hasOption("sniff"));
+
+        String format = commandLine.getOptionValue("format", TEXT_FORMAT);
+        OutputFormat outputFormat;
+
+        if (JSON_LINES_FORMAT.equals(format)) {
+            outputFormat = OutputFormat.JSON_LINES;
+        } else if (TEXT_FORMAT.equals(format)) {
+            outputFormat = OutputFormat.TEXT;
+        } else {
+            throw new ParseException("Unknown output format: " + format);
+        }
+
+        PrintStream output = new PrintStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+
+        try {
+            if (commandLine.hasOption("query")) {
+                NitfIndex.query(FileSystems.getDefault().getPath(commandLine.getOptionValue("query")),
+                        parseFilters(commandLine.getOptionValues("where")),
+                        parseBoundingBox(commandLine.getOptionValue("bbox")),
+                        output);
+            }
+
+            if (commandLine.hasOption("f")) {
+                Path file = FileSystems.getDefault().getPath(commandLine.getOptionValue("f"));
+
+                if (quicklookWriter != null) {
+                    quicklookWriter.writeQuicklooks(file, file.toAbsolutePath().getParent());
+                } else {
+                    processSingleFile(file.toFile(), outputFormat, output);
+                }
+            }
+
+            if (commandLine.hasOption("d")) {
+                Path startPath = FileSystems.getDefault().getPath(commandLine.getOptionValue("d"));
+
+                if (quicklookWriter != null) {
+                    writeQuicklooksRecursively(startPath);
+                } else if (commandLine.hasOption("index")) {
+                    buildIndex(startPath, FileSystems.getDefault()
+                            .getPath(commandLine.getOptionValue("index")));
+                } else {
+                    ScanManifest manifest = processRecursively(startPath, outputFormat, output,
+                            Collections.emptyMap());
+
+                    if (manifest != null) {
+                        manifest.save(manifestFile);
+                    }
+                }
+            }
+        } finally {
+            output.flush();
         }
+    }
 
-        if (commandLine.hasOption("d")) {
-            processRecursively(FileSystems.getDefault()
-                    .getPath(commandLine.getOptionValue("d")) );
+    private static void processSingleFile(File file, OutputFormat format, PrintStream out)
+            throws IOException, java.text.ParseException, NitfFormatException {
+        try (ImageInputStream input = new MappedFileImageInputStream(file)) {
+            processSingleFile(file, format, new NitfParserInputFlowImpl().imageInputStream(input), out);
         }
     }
 
-    private static void processSingleFile(File file)
-            throws FileNotFoundException, java.text.ParseException, NitfFormatException {
-        new NitfParserInputFlowImpl()
-                .file(file)
-                .allData()
-                .fileHeader(NitfPeek::dumpFileHeader)
-                .forEachImageSegment(NitfPeek::dumpImageHeader)
-                .forEachImageSegment(NitfPeek::extractImages);
+    private static void processSingleFile(File file, OutputFormat format, NitfParserParsingFlow parsingFlow,
+            PrintStream out)
+            throws java.text.ParseException, NitfFormatException {
+
+        // only extraction needs the segment payloads; every header we print is available from
+        // the header-only strategy, which skips over the segment data instead of reading it.
+        NitfSegmentsFlow segmentsFlow = extractImageData ? parsingFlow.allData() : parsingFlow.headerOnly();
+
+        if (format == OutputFormat.INDEX) {
+            NitfIndexRecord record = new NitfIndexRecord(getScanKey(file.toPath()));
+
+            segmentsFlow.fileHeader(record::addFileHeader)
+                    .forEachImageSegment(record::addImageSegment)
+                    .forEachImageSegment(NitfPeek::extractImages);
+
+            record.write(out);
+        } else if (format == OutputFormat.JSON_LINES) {
+            NitfJsonRecord record = new NitfJsonRecord(file.getPath());
+
+            segmentsFlow.fileHeader(record::addFileHeader)
+                    .forEachImageSegment(record::addImageSegment)
+                    .forEachImageSegment(NitfPeek::extractImages);
+
+            out.print(record.toJson());
+            out.print('\n');
+        } else {
+            segmentsFlow.fileHeader(header -> dumpFileHeader(header, out))
+                    .forEachImageSegment(segment -> dumpImageHeader(segment, out))
+                    .forEachImageSegment(NitfPeek::extractImages);
+        }
+    }
+
+    /**
+     * Processes a file into a private buffer and then copies the buffer to the output in one
+     * piece, so that the output of files parsed on different threads is never interleaved.
+     */
+    private static boolean processBuffered(File file, OutputFormat format, PrintStream output,
+            ScanStatistics statistics) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer);
+        boolean processed = false;
+
+        try {
+            processSingleFile(file, format, out);
+            statistics.fileProcessed(file.length());
+            processed = true;
+        } catch (IOException | java.text.ParseException | NitfFormatException | RuntimeException e) {
+            e.printStackTrace();
+            statistics.fileFailed();
+        }
+
+        out.flush();
+
+        synchronized (output) {
+            try {
+                buffer.writeTo(output);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        return processed;
+    }
+
+    /**
+     * @return the name a file is recorded under in the manifest and the index: its normalized
+     * absolute path, so that a tree scanned as dir, ./dir or /abs/dir matches the previous scan.
+     */
+    private static String getScanKey(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Processes a file found by a scan. With a manifest, files whose size, modification time and
+     * hash are unchanged are skipped and, when indexing, their previous index rows are copied
+     * instead. Only files that were processed successfully are added to the new manifest, so that
+     * failures are retried by the next scan.
+     */
+    private static void processPath(Path path, OutputFormat format, PrintStream output,
+            Map<String, List<String>> previousIndexRows, ScanManifest previousManifest,
+            ScanManifest currentManifest, ScanStatistics statistics) {
+        boolean indexing = format == OutputFormat.INDEX;
+
+        if (previousManifest == null) {
+            processBuffered(path.toFile(), format, output, statistics);
+            return;
+        }
+
+        String fileName = getScanKey(path);
+
+        try {
+            ScanManifest.Entry entry = ScanManifest.describe(path, hashFiles);
+            List<String> previousRows = previousIndexRows.get(fileName);
+
+            if (entry.equals(previousManifest.get(fileName)) && (!indexing || previousRows != null)) {
+                if (indexing) {
+                    synchronized (output) {
+                        for (String row : previousRows) {
+                            output.print(row);
+                            output.print('\n');
+                        }
+                    }
+                }
+
+                currentManifest.put(fileName, entry);
+                statistics.fileUnchanged();
+            } else if (processBuffered(path.toFile(), format, output, statistics)) {
+                currentManifest.put(fileName, entry);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            statistics.fileFailed();
+        }
+    }
+
+    /**
+     * Creates a fixed size pool whose queue holds only a few files per worker. When the queue is
+     * full the walking thread parses the file itself, which keeps the directory walk from getting
+     * arbitrarily far ahead of the parsers.
+     */
+    static ExecutorService createWorkerPool(int poolSize) {
+        return new ThreadPoolExecutor(poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 4),
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     private static void extractImages(ImageSegment imageSegment) {
@@ -114,67 +447,253 @@ public class NitfPeek {
             File outputFile = new File(outputFileName);
 
             try (FileOutputStream fileOutputStream = new FileOutputStream(outputFile);) {
-                byte[] bytes = new byte[(int) imageSegment.getDataLength()];
-                imageSegment.getData().readFully(bytes);
-                fileOutputStream.write(bytes);
+                copySegmentData(imageSegment.getData(), imageSegment.getDataLength(), fileOutputStream);
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
     }
 
-    private static void dumpImageHeader(ImageSegment segment) {
+    /**
+     * Copies segment data through a fixed size, per thread buffer so that memory use does not
+     * depend on the size of the segment.
+     */
+    private static void copySegmentData(ImageInputStream data, long dataLength,
+            OutputStream outputStream) throws IOException {
+        byte[] buffer = EXTRACT_BUFFER.get();
+        long remaining = dataLength;
+
+        while (remaining > 0) {
+            int chunkLength = (int) Math.min(buffer.length, remaining);
+            data.readFully(buffer, 0, chunkLength);
+            outputStream.write(buffer, 0, chunkLength);
+            remaining -= chunkLength;
+        }
+    }
+
+    /**
+     * Prints an already parsed file the way --imageheader prints it in the text format, for
+     * callers such as benchmarks that parse the file themselves.
+     */
+    public static void printText(NitfHeader header, List<ImageSegment> imageSegments, PrintStream out) {
+        dumpFileHeader(header, out);
+
+        for (ImageSegment imageSegment : imageSegments) {
+            printImageHeader(imageSegment, out);
+        }
+    }
+
+    /**
+     * @return the JSON Lines record for an already parsed file, without its line terminator.
+     */
+    public static String toJsonLine(String fileName, NitfHeader header, List<ImageSegment> imageSegments) {
+        NitfJsonRecord record = new NitfJsonRecord(fileName);
+        record.addFileHeader(header);
+        imageSegments.forEach(record::addImageSegment);
+        return record.toJson();
+    }
+
+    private static void dumpImageHeader(ImageSegment segment, PrintStream out) {
         if (dumpImageHeader) {
-            for (ImageAttribute imageAttribute : ImageAttribute.values()) {
-                String shortName = imageAttribute.getShortName();
-                String longName = imageAttribute.getLongName();
-                String value = imageAttribute.getAccessorFunction().apply(segment).toString();
+            printImageHeader(segment, out);
+        }
+    }
+
+    private static void printImageHeader(ImageSegment segment, PrintStream out) {
+        for (ImageAttribute imageAttribute : ImageAttribute.values()) {
+            String shortName = imageAttribute.getShortName();
+            String longName = imageAttribute.getLongName();
+            String value = imageAttribute.getAccessorFunction().apply(segment).toString();
+
+            if (StringUtils.isNotBlank(value)) {
+                out.println(String.format("%s (%s) : %s", longName, shortName, value));
+            }
+        }
+
+        out.println();
 
-                if (StringUtils.isNotBlank(value)) {
-                    System.out.println(String.format("%s (%s) : %s", longName, shortName, value));
+        dumpTres(segment.getTREsFlat(), out);
+    }
+
+    /**
+     * @param previousIndexRows the rows of the previous index by file, copied for unchanged files
+     * when writing an index.
+     * @return the manifest describing the files processed by this scan, or null when the scan
+     * was not given a manifest.
+     */
+    private static ScanManifest processRecursively(Path startPath, OutputFormat format, PrintStream output,
+            Map<String, List<String>> previousIndexRows) throws IOException {
+        ScanStatistics statistics = new ScanStatistics();
+        ExecutorService workerPool = createWorkerPool(threads);
+        ScanManifest previousManifest = manifestFile != null ? ScanManifest.load(manifestFile) : null;
+        ScanManifest currentManifest = new ScanManifest();
+
+        try {
+            fileWalker.walk(startPath, path -> workerPool.execute(() -> {
+                if (fileWalker.matchesSignature(path)) {
+                    processPath(path, format, output, previousIndexRows, previousManifest, currentManifest,
+                            statistics);
                 }
+            }));
+        } finally {
+            workerPool.shutdown();
+
+            try {
+                workerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
 
-            System.out.println();
+        statistics.report(System.err);
 
-            dumpTres(segment.getTREsFlat());
+        if (previousManifest == null) {
+            return null;
         }
+
+        System.err.println(String.format("%d files dropped since the last scan",
+                previousManifest.countMissingFrom(currentManifest)));
+        return currentManifest;
     }
 
-    private static void processRecursively(Path startPath) throws IOException {
-        int maxDepth = 5;
-        try (Stream<Path> stream = Files.find(startPath, maxDepth, (path, attr) ->
-                String.valueOf(path).matches(".*\\.(nsf|ntf)"))) {
-            stream.forEach(path -> {
+    /**
+     * Writes quicklooks for every NITF in the tree, a file per worker at a time.
+     */
+    private static void writeQuicklooksRecursively(Path startPath) throws IOException {
+        ScanStatistics statistics = new ScanStatistics();
+        ExecutorService workerPool = createWorkerPool(threads);
+        Path baseDirectory = startPath.toAbsolutePath();
+
+        try {
+            fileWalker.walk(startPath, path -> workerPool.execute(() -> {
+                if (!fileWalker.matchesSignature(path)) {
+                    return;
+                }
+
                 try {
-                    processSingleFile(path.toFile());
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                } catch (java.text.ParseException e) {
-                    e.printStackTrace();
-                } catch (NitfFormatException e) {
-                    e.printStackTrace();
+                    quicklookWriter.writeQuicklooks(path, baseDirectory);
+                    statistics.fileProcessed(path.toFile().length());
+                } catch (IOException | NitfFormatException | RuntimeException | OutOfMemoryError e) {
+                    System.err.println(path + ": " + e.getMessage());
+                    statistics.fileFailed();
+                }
+            }));
+        } finally {
+            workerPool.shutdown();
+
+            try {
+                workerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        statistics.report(System.err);
+    }
+
+    /**
+     * Scans the tree into a temporary index file, which then replaces the index in one move so
+     * that readers never see a partly written index. The manifest is only saved once the new index
+     * is in place.
+     */
+    private static void buildIndex(Path startPath, Path indexFile) throws IOException {
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        Map<String, List<String>> previousIndexRows = manifestFile != null ? NitfIndex.readRows(indexFile)
+                : Collections.emptyMap();
+        ScanManifest manifest;
+
+        try (PrintStream indexOutput = new PrintStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile), OUTPUT_BUFFER_SIZE), false)) {
+            NitfIndex.writeHeader(indexOutput);
+            manifest = processRecursively(startPath, OutputFormat.INDEX, indexOutput, previousIndexRows);
+        }
+
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+
+        if (manifest != null) {
+            manifest.save(manifestFile);
+        }
+    }
+
+    private static int parseMaxDepth(String maxDepth) throws ParseException {
+        if (maxDepth == null) {
+            return NitfFileWalker.DEFAULT_MAX_DEPTH;
+        }
+
+        int depth;
+
+        try {
+            depth = Integer.parseInt(maxDepth.trim());
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid maximum depth: " + maxDepth);
+        }
+
+        if (depth < 0) {
+            throw new ParseException("Invalid maximum depth: " + maxDepth);
+        }
+
+        return depth;
+    }
+
+    private static Map<String, String> parseFilters(String[] conditions) throws ParseException {
+        Map<String, String> filters = new HashMap<>();
+
+        if (conditions != null) {
+            for (String condition : conditions) {
+                int separator = condition.indexOf('=');
+
+                if (separator <= 0) {
+                    throw new ParseException("Expected attribute=value but found: " + condition);
                 }
-            });
+
+                filters.put(condition.substring(0, separator).trim(),
+                        condition.substring(separator + 1).trim());
+            }
+        }
+
+        return filters;
+    }
+
+    private static double[] parseBoundingBox(String boundingBox) throws ParseException {
+        if (boundingBox == null) {
+            return null;
+        }
+
+        String[] values = boundingBox.split(",");
+
+        if (values.length != 4) {
+            throw new ParseException("Expected minLon,minLat,maxLon,maxLat but found: " + boundingBox);
         }
+
+        double[] bounds = new double[values.length];
+
+        try {
+            for (int i = 0; i < values.length; i++) {
+                bounds[i] = Double.parseDouble(values[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid bounding box: " + boundingBox);
+        }
+
+        return bounds;
     }
 
-    private static void dumpTres(Map<String, String> tres) {
+    private static void dumpTres(Map<String, String> tres, PrintStream out) {
         for (String key : tres.keySet()) {
             String value = tres.get(key);
 
             if (StringUtils.isNotBlank(value)) {
-                System.out.println(String.format("%s : %s", key, value));
+                out.println(String.format("%s : %s", key, value));
             }
         }
 
-        System.out.println();
+        out.println();
     }
 
-    private static void dumpFileHeader(NitfHeader header) {
-        System.out.println();
-        System.out.println(header.getFileTitle());
-        System.out.println("-------------------------------");
+    private static void dumpFileHeader(NitfHeader header, PrintStream out) {
+        out.println();
+        out.println(header.getFileTitle());
+        out.println("-------------------------------");
 
         for (NitfHeaderAttribute attribute : NitfHeaderAttribute.values()) {
             String shortName = attribute.getShortName();
@@ -182,15 +701,15 @@ public class NitfPeek {
             String value = attribute.getAccessorFunction().apply(header).toString();
 
             if (StringUtils.isNotBlank(value)) {
-                System.out.println(String.format("%s (%s) : %s", longName, shortName, value));
+                out.println(String.format("%s (%s) : %s", longName, shortName, value));
             }
         }
 
-        System.out.println();
+        out.println();
         Map<String, String> tres = header.getTREsFlat();
 
         if (tres != null) {
-            dumpTres(tres);
+            dumpTres(tres, out);
         }
     }
 }
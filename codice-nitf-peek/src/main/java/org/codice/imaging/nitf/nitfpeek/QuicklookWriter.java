@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
+import org.codice.imaging.nitf.render.NitfRenderer;
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+import org.codice.imaging.nitf.tiles.MappedFileImageInputStream;
+
+/**
+ * Writes a JPEG quicklook of every image segment in a NITF, no larger than a given size on its
+ * longest side. JPEG compressed images are read a block at a time with the JPEG reader
+ * subsampling each block as it goes, which still decodes every pixel but never holds more than
+ * one full resolution block. Other images whose blocks can be found without decoding are decoded
+ * a block at a time by the shared ImageSegmentTileSource and each block shrunk into place.
+ * Anything else has to be rendered whole, so only one such image is rendered at a time however
+ * many files are being processed. Quicklooks are named after the file and segment number, in the
+ * same place under the output directory as the file is under the directory being scanned.
+ */
+class QuicklookWriter {
+    private static final Semaphore WHOLE_IMAGE_RENDER = new Semaphore(1);
+
+    private final Path outputDirectory;
+
+    private final int size;
+
+    QuicklookWriter(Path outputDirectory, int size) {
+        this.outputDirectory = outputDirectory;
+        this.size = size;
+    }
+
+    /**
+     * @param baseDirectory the directory the quicklook's location is taken relative to.
+     */
+    void writeQuicklooks(Path file, Path baseDirectory) throws IOException, NitfFormatException {
+        Path relativeDirectory = baseDirectory.relativize(file.toAbsolutePath().getParent());
+        Path quicklookDirectory = outputDirectory.resolve(relativeDirectory);
+        String baseName = file.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        AtomicInteger segmentIndex = new AtomicInteger();
+        IOException[] failure = new IOException[1];
+
+        Files.createDirectories(quicklookDirectory);
+
+        try (ImageInputStream input = new MappedFileImageInputStream(file.toFile())) {
+            new NitfParserInputFlowImpl().imageInputStream(input)
+                    .allData()
+                    .forEachImageSegment(segment -> {
+                        File quicklookFile = quicklookDirectory.resolve(
+                                String.format("%s_%d.jpg", baseName, segmentIndex.getAndIncrement())).toFile();
+
+                        try {
+                            if (failure[0] == null) {
+                                writeQuicklook(segment, quicklookFile);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            failure[0] = new IOException("Couldn't write " + quicklookFile + ": " + e.getMessage(), e);
+                        }
+                    });
+        }
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private void writeQuicklook(ImageSegment segment, File quicklookFile) throws IOException {
+        BufferedImage image = null;
+
+        if (isSubsampledJpegReadable(segment)) {
+            try {
+                image = readSubsampledJpeg(segment);
+            } catch (IOException e) {
+                // some NITF JPEG variants are beyond the ImageIO reader; the renderer handles them
+            }
+        }
+
+        if (image == null) {
+            image = readBlocks(segment);
+        }
+
+        ImageIO.write(shrink(image), "jpg", quicklookFile);
+    }
+
+    /**
+     * @return the largest power of two that reduces the image to no less than the quicklook size.
+     */
+    private int getSubsampling(ImageSegment segment) {
+        long longestSide = Math.max(segment.getNumberOfColumns(), segment.getNumberOfRows());
+        int subsampling = 1;
+
+        while (longestSide / (subsampling * 2) >= size) {
+            subsampling *= 2;
+        }
+
+        return subsampling;
+    }
+
+    /**
+     * @return an image 1/subsampling the size of the segment, for blocks to be shrunk into.
+     */
+    private static BufferedImage createReducedImage(ImageSegment segment, int subsampling, BufferedImage block) {
+        return new BufferedImage(
+                (int) ((segment.getNumberOfColumns() + subsampling - 1) / subsampling),
+                (int) ((segment.getNumberOfRows() + subsampling - 1) / subsampling),
+                block.getType() == BufferedImage.TYPE_BYTE_GRAY ? BufferedImage.TYPE_BYTE_GRAY
+                        : BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Decodes the image a block at a time, without caching, and shrinks each block by the largest
+     * power of two that keeps the image at least the quicklook size. The block size needn't be a
+     * multiple of that: each shrunk block is rounded up and drawn at the rounded down position of
+     * the block, so neighbouring blocks overlap by at most a pixel rather than leaving gaps. Images
+     * that can't be decoded by block are rendered whole instead.
+     */
+    private BufferedImage readBlocks(ImageSegment segment) throws IOException {
+        ImageSegmentTileSource tileSource = new ImageSegmentTileSource(segment);
+
+        if (!tileSource.isBlockAddressable()) {
+            WHOLE_IMAGE_RENDER.acquireUninterruptibly();
+
+            try {
+                return shrink(new NitfRenderer().render(segment));
+            } finally {
+                WHOLE_IMAGE_RENDER.release();
+            }
+        }
+
+        int tileWidth = tileSource.getTileWidth();
+        int tileHeight = tileSource.getTileHeight();
+        int subsampling = getSubsampling(segment);
+        BufferedImage image = null;
+        Graphics2D graphics = null;
+
+        try {
+            for (int tileRow = 0; tileRow < tileSource.getTilesDown(); tileRow++) {
+                for (int tileColumn = 0; tileColumn < tileSource.getTilesAcross(); tileColumn++) {
+                    BufferedImage tile = tileSource.decodeTile(tileColumn, tileRow);
+
+                    if (image == null) {
+                        image = createReducedImage(segment, subsampling, tile);
+                        graphics = image.createGraphics();
+                    }
+
+                    graphics.drawImage(scale(tile, (tile.getWidth() + subsampling - 1) / subsampling,
+                            (tile.getHeight() + subsampling - 1) / subsampling),
+                            (int) ((long) tileColumn * tileWidth / subsampling),
+                            (int) ((long) tileRow * tileHeight / subsampling), null);
+                }
+            }
+        } finally {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * @return whether each block is a single JPEG stream holding every band. A multi-band IMODE B
+     * image stores a stream per band per block, which the renderer has to merge.
+     */
+    private static boolean isSubsampledJpegReadable(ImageSegment segment) {
+        ImageMode mode = segment.getImageMode();
+
+        return segment.getImageCompression() == ImageCompression.JPEG
+                && segment.getNumberOfBitsPerPixelPerBand() == 8
+                && (segment.getNumBands() == 1 || segment.getNumBands() == 3)
+                && (mode == ImageMode.PIXELINTERLEVE
+                        || (mode == ImageMode.BLOCKINTERLEVE && segment.getNumBands() == 1));
+    }
+
+    /**
+     * Reads every block, which in a JPEG NITF is a JPEG stream of its own, keeping every nth pixel
+     * in each direction. The reader decodes each block at full resolution before dropping pixels,
+     * so this saves memory rather than time. n is the same power of two readBlocks uses, and
+     * subsampled blocks are placed the same way.
+     */
+    private BufferedImage readSubsampledJpeg(ImageSegment segment) throws IOException {
+        long blockWidth = segment.getNumberOfPixelsPerBlockHorizontal();
+        long blockHeight = segment.getNumberOfPixelsPerBlockVertical();
+        int subsampling = getSubsampling(segment);
+
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+
+        if (!readers.hasNext()) {
+            return null;
+        }
+
+        ImageReader reader = readers.next();
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        ImageInputStream data = segment.getData();
+        BufferedImage image = null;
+        Graphics2D graphics = null;
+
+        try {
+            data.seek(0);
+            reader.setInput(data, true);
+
+            for (int blockRow = 0; blockRow < segment.getNumberOfBlocksPerColumn(); blockRow++) {
+                for (int blockColumn = 0; blockColumn < segment.getNumberOfBlocksPerRow(); blockColumn++) {
+                    BufferedImage block = reader.read(blockRow * segment.getNumberOfBlocksPerRow() + blockColumn,
+                            param);
+
+                    if (image == null) {
+                        image = createReducedImage(segment, subsampling, block);
+                        graphics = image.createGraphics();
+                    }
+
+                    graphics.drawImage(block, (int) (blockColumn * blockWidth / subsampling),
+                            (int) (blockRow * blockHeight / subsampling), null);
+                }
+            }
+        } finally {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+
+            reader.dispose();
+        }
+
+        return image;
+    }
+
+    /**
+     * Scales the image down to the quicklook size, keeping its aspect ratio.
+     */
+    private BufferedImage shrink(BufferedImage image) {
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+
+        return scale(image, Math.max(1, (int) Math.round(image.getWidth() * scale)),
+                Math.max(1, (int) Math.round(image.getHeight() * scale)));
+    }
+
+    /**
+     * Halves the image until it is within twice the given size, then scales it the rest of the
+     * way, which keeps bilinear scaling from skipping pixels.
+     */
+    private static BufferedImage scale(BufferedImage image, int targetWidth, int targetHeight) {
+        int type = image.getType() == BufferedImage.TYPE_BYTE_GRAY ? BufferedImage.TYPE_BYTE_GRAY
+                : BufferedImage.TYPE_INT_RGB;
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        do {
+            if (width > targetWidth * 2 || height > targetHeight * 2) {
+                width = Math.max(targetWidth, width / 2);
+                height = Math.max(targetHeight, height / 2);
+            } else {
+                width = targetWidth;
+                height = targetHeight;
+            }
+
+            BufferedImage scaled = new BufferedImage(width, height, type);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+            graphics.dispose();
+            image = scaled;
+        } while (width != targetWidth || height != targetHeight);
+
+        return image;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Records the size, modification time and, optionally, a fast hash of every file processed by a
+ * scan, so that the next scan can skip files that have not changed. Stored as tab separated
+ * lines of path, size, modification time in milliseconds and hash.
+ */
+class ScanManifest {
+    private static final int HASH_SAMPLE_SIZE = 64 * 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    static ScanManifest load(Path manifestFile) throws IOException {
+        ScanManifest manifest = new ScanManifest();
+
+        if (!Files.exists(manifestFile)) {
+            return manifest;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, Charset.defaultCharset())) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+
+                if (fields.length == 4) {
+                    manifest.entries.put(NitfIndex.unescape(fields[0]),
+                            new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+                }
+            }
+        }
+
+        return manifest;
+    }
+
+    void save(Path manifestFile) throws IOException {
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, Charset.defaultCharset())) {
+            for (Map.Entry<String, Entry> entry : new TreeMap<>(entries).entrySet()) {
+                writer.write(NitfIndex.escape(entry.getKey()));
+                writer.write('\t');
+                writer.write(Long.toString(entry.getValue().size));
+                writer.write('\t');
+                writer.write(Long.toString(entry.getValue().lastModified));
+                writer.write('\t');
+                writer.write(entry.getValue().hash);
+                writer.write('\n');
+            }
+        }
+
+        Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Entry get(String path) {
+        return entries.get(path);
+    }
+
+    void put(String path, Entry entry) {
+        entries.put(path, entry);
+    }
+
+    /**
+     * @return the number of entries in this manifest that are not in the other one.
+     */
+    int countMissingFrom(ScanManifest other) {
+        int missing = 0;
+
+        for (String path : entries.keySet()) {
+            if (!other.entries.containsKey(path)) {
+                missing++;
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * Describes a file as it is now. The hash is a CRC32 of the first and last 64 KB of the file,
+     * which catches rewritten headers and appended segments without reading whole images.
+     */
+    static Entry describe(Path path, boolean hash) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        String hashValue = "";
+
+        if (hash) {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_SAMPLE_SIZE);
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                updateHash(crc, channel, buffer, 0);
+
+                if (size > HASH_SAMPLE_SIZE) {
+                    updateHash(crc, channel, buffer, Math.max(HASH_SAMPLE_SIZE, size - HASH_SAMPLE_SIZE));
+                }
+            }
+
+            hashValue = Long.toHexString(crc.getValue());
+        }
+
+        return new Entry(size, attributes.lastModifiedTime().toMillis(), hashValue);
+    }
+
+    private static void updateHash(CRC32 crc, FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        buffer.clear();
+
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+            // keep reading until the sample is full or the end of the file is reached
+        }
+
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+    }
+
+    static final class Entry {
+        private final long size;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        Entry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) {
+                return false;
+            }
+
+            Entry entry = (Entry) other;
+            return size == entry.size && lastModified == entry.lastModified && hash.equals(entry.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, hash);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe counters for a directory scan, reported as throughput when the scan completes.
+ */
+class ScanStatistics {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private final long startTime = System.nanoTime();
+
+    private final AtomicLong filesProcessed = new AtomicLong();
+
+    private final AtomicLong filesFailed = new AtomicLong();
+
+    private final AtomicLong filesUnchanged = new AtomicLong();
+
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    void fileProcessed(long length) {
+        filesProcessed.incrementAndGet();
+        bytesProcessed.addAndGet(length);
+    }
+
+    void fileFailed() {
+        filesFailed.incrementAndGet();
+    }
+
+    void fileUnchanged() {
+        filesUnchanged.incrementAndGet();
+    }
+
+    void report(PrintStream out) {
+        double seconds = Math.max(System.nanoTime() - startTime, 1L) / NANOS_PER_SECOND;
+        double megabytes = bytesProcessed.get() / BYTES_PER_MEGABYTE;
+
+        out.println(String.format("%d files (%d failed, %d unchanged), %.1f MB in %.2f s : %.1f files/sec, %.1f MB/sec",
+                filesProcessed.get(),
+                filesFailed.get(),
+                filesUnchanged.get(),
+                megabytes,
+                seconds,
+                filesProcessed.get() / seconds,
+                megabytes / seconds));
+    }
+}
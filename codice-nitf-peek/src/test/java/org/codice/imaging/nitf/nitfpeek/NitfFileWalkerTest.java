@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class NitfFileWalkerTest {
+    private static final String DEFAULT_FILES = "UPPER.NTF, a/b/c/deeper.ntf, a/b/deep.nitf, a/mid.nsf, top.ntf";
+
+    @Test
+    public void testDefaults() throws IOException {
+        Path root = createTree();
+
+        try {
+            assertEquals(DEFAULT_FILES, walk(root, new NitfFileWalker(NitfFileWalker.DEFAULT_MAX_DEPTH,
+                    Arrays.asList(NitfFileWalker.DEFAULT_EXTENSIONS.split(",")), false)));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testMaxDepth() throws IOException {
+        Path root = createTree();
+
+        try {
+            assertEquals("UPPER.NTF, top.ntf", walk(root, createWalker(1, "ntf,nsf,nitf", false)));
+            assertEquals("UPPER.NTF, a/b/deep.nitf, a/mid.nsf, top.ntf",
+                    walk(root, createWalker(3, "ntf,nsf,nitf", false)));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testExtensionsIgnoreCase() throws IOException {
+        Path root = createTree();
+
+        try {
+            assertEquals("UPPER.NTF, a/b/c/deeper.ntf, top.TXT, top.ntf",
+                    walk(root, createWalker(5, " NTF ,txt", false)));
+            assertEquals(DEFAULT_FILES.replace("top.ntf", "noext, top.TXT, top.ntf"),
+                    walk(root, createWalker(5, "*", false)));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testSniff() throws IOException {
+        Path root = createTree();
+
+        try {
+            NitfFileWalker walker = createWalker(5, "*", true);
+            Set<String> matching = new TreeSet<>();
+            walker.walk(root, path -> {
+                if (walker.matchesSignature(path)) {
+                    matching.add(relativeName(root, path));
+                }
+            });
+
+            assertEquals("[UPPER.NTF, noext, top.ntf]", matching.toString());
+            assertTrue(createWalker(5, "ntf", false).matchesSignature(root.resolve("a/mid.nsf")));
+            assertFalse(walker.matchesSignature(root.resolve("missing.ntf")));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    /**
+     * Creates a tree with NITF and NSIF files at the top, a file too short to hold a signature two
+     * levels down and files that aren't NITFs, with and without matching extensions.
+     */
+    private static Path createTree() throws IOException {
+        Path root = Files.createTempDirectory("nitf-walker");
+        Files.createDirectories(root.resolve("a/b/c"));
+        write(root.resolve("top.ntf"), "NITF02.10");
+        write(root.resolve("UPPER.NTF"), "NSIF01.00");
+        write(root.resolve("top.TXT"), "text");
+        write(root.resolve("noext"), "NITF02.10");
+        write(root.resolve("a/mid.nsf"), "JUNK");
+        write(root.resolve("a/b/deep.nitf"), "NI");
+        write(root.resolve("a/b/c/deeper.ntf"), "nitf02.10");
+        return root;
+    }
+
+    private static void write(Path file, String contents) throws IOException {
+        Files.write(file, contents.getBytes("US-ASCII"));
+    }
+
+    private static NitfFileWalker createWalker(int maxDepth, String extensions, boolean checkSignature) {
+        return new NitfFileWalker(maxDepth, Arrays.asList(extensions.split(",")), checkSignature);
+    }
+
+    private static String walk(Path root, NitfFileWalker walker) throws IOException {
+        Set<String> files = new TreeSet<>();
+        walker.walk(root, path -> files.add(relativeName(root, path)));
+        return String.join(", ", files);
+    }
+
+    private static String relativeName(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
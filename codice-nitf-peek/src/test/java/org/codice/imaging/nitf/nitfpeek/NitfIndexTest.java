@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.nitfbuilder.ImageCoordinatesCreationFlow;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.junit.Test;
+
+public class NitfIndexTest {
+    private static final String NO_IMAGES = "no\timages.ntf";
+
+    @Test
+    public void testQueryFiltersIgnoreCase() throws IOException {
+        Path index = createIndex();
+
+        try {
+            assertEquals(lines("a.ntf"), query(index, Collections.singletonMap("iid1", "ALPHA"), null));
+            assertEquals(lines("c.ntf"), query(index, Collections.singletonMap("ICAT", "multispectral"), null));
+            assertEquals(lines(), query(index, Collections.singletonMap("IID1", "missing"), null));
+        } finally {
+            Files.delete(index);
+        }
+    }
+
+    @Test
+    public void testQueryUnknownColumn() throws IOException {
+        Path index = createIndex();
+
+        try {
+            query(index, Collections.singletonMap("NOSUCHCOLUMN", "x"), null);
+            fail("Queried an unknown column");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("NOSUCHCOLUMN"));
+        } finally {
+            Files.delete(index);
+        }
+    }
+
+    @Test
+    public void testQueryBoundingBox() throws IOException {
+        Path index = createIndex();
+
+        try {
+            Map<String, String> noFilters = Collections.emptyMap();
+
+            assertEquals(lines("a.ntf"), query(index, noFilters, new double[] {10.5, 20.5, 12, 22}));
+            assertEquals(lines("c.ntf"), query(index, noFilters, new double[] {-50, -50, -40, -40}));
+            assertEquals(lines(), query(index, noFilters, new double[] {100, 60, 101, 61}));
+        } finally {
+            Files.delete(index);
+        }
+    }
+
+    /**
+     * A file whose rows are split across the index, and a file with two matching segments, are
+     * each printed once.
+     */
+    @Test
+    public void testQueryPrintsEachFileOnce() throws IOException {
+        Path index = createIndex();
+
+        try {
+            assertEquals(lines("a.ntf", "c.ntf"), query(index, Collections.singletonMap("IM", "im"), null));
+        } finally {
+            Files.delete(index);
+        }
+    }
+
+    @Test
+    public void testReadRowsGroupedByFile() throws IOException {
+        Path index = createIndex();
+
+        try {
+            Map<String, List<String>> rows = NitfIndex.readRows(index);
+
+            assertEquals(3, rows.size());
+            assertEquals(2, rows.get("a.ntf").size());
+            assertEquals(1, rows.get(NO_IMAGES).size());
+            assertEquals(2, rows.get("c.ntf").size());
+            assertTrue(rows.get("c.ntf").get(1).startsWith("c.ntf\t1\t"));
+        } finally {
+            Files.delete(index);
+        }
+    }
+
+    @Test
+    public void testReadRowsWithDifferentColumns() throws IOException {
+        Path index = Files.createTempFile("nitf-index", ".tsv");
+
+        try {
+            Files.write(index, "FILE\tSEGMENT\nold.ntf\t0\n".getBytes("UTF-8"));
+            assertTrue(NitfIndex.readRows(index).isEmpty());
+
+            Files.delete(index);
+            assertTrue(NitfIndex.readRows(index).isEmpty());
+        } finally {
+            Files.deleteIfExists(index);
+        }
+    }
+
+    @Test
+    public void testEscapeRoundTrip() {
+        String value = "tab\there\\new\nline\rreturn";
+
+        assertEquals("tab\\there\\\\new\\nline\\rreturn", NitfIndex.escape(value));
+        assertEquals(value, NitfIndex.unescape(NitfIndex.escape(value)));
+        assertEquals("", NitfIndex.escape(null));
+    }
+
+    /**
+     * Writes an index of a.ntf, with one visual image at 10..11E 20..21N, a file without images,
+     * c.ntf, with a visual and a multispectral image at 45..44W 45..44S, then a second image of
+     * a.ntf after the others, as an incremental scan can leave it.
+     */
+    private static Path createIndex() throws IOException {
+        Path index = Files.createTempFile("nitf-index", ".tsv");
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(index), false, "UTF-8")) {
+            NitfIndex.writeHeader(out);
+
+            NitfIndexRecord a = new NitfIndexRecord("a.ntf");
+            a.addImageSegment(createSegment("alpha", ImageCategory.VISUAL, 20, 10).get());
+            a.write(out);
+
+            new NitfIndexRecord(NO_IMAGES).write(out);
+
+            NitfIndexRecord c = new NitfIndexRecord("c.ntf");
+            c.addImageSegment(createSegment("gamma", ImageCategory.VISUAL, -45, -45).get());
+            c.addImageSegment(createSegment("gamma2", ImageCategory.MULTISPECTRAL, -45, -45).get());
+            c.write(out);
+
+            NitfIndexRecord aAgain = new NitfIndexRecord("a.ntf");
+            aAgain.addImageSegment(TestImageSegments.create("beta").get());
+            aAgain.write(out);
+        }
+
+        return index;
+    }
+
+    private static ImageSegmentCreationFlow createSegment(String identifier, ImageCategory category,
+            double latitude, double longitude) {
+        return TestImageSegments.create(identifier)
+                .category(category)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.DECIMALDEGREES)
+                .coordinates(new ImageCoordinatesCreationFlow(ImageCoordinatesRepresentation.DECIMALDEGREES)
+                        .coordinate00(latitude + 1, longitude)
+                        .coordinate0MaxCol(latitude + 1, longitude + 1)
+                        .coordinateMaxRowMaxCol(latitude, longitude + 1)
+                        .coordinateMaxRow0(latitude, longitude)
+                        .get());
+    }
+
+    private static String query(Path index, Map<String, String> filters, double[] boundingBox)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (PrintStream out = new PrintStream(bytes, false, "UTF-8")) {
+            NitfIndex.query(index, filters, boundingBox, out);
+        }
+
+        return bytes.toString("UTF-8");
+    }
+
+    private static String lines(String... fileNames) {
+        StringBuilder lines = new StringBuilder();
+
+        for (String fileName : fileNames) {
+            lines.append(fileName).append(System.lineSeparator());
+        }
+
+        return lines.toString();
+    }
+}
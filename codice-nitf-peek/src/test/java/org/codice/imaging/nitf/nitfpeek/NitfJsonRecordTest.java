@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class NitfJsonRecordTest {
+    @Test
+    public void testNoImages() {
+        assertEquals("{\"file\":\"empty.ntf\",\"images\":[]}", new NitfJsonRecord("empty.ntf").toJson());
+    }
+
+    @Test
+    public void testImagesWithoutHeader() {
+        NitfJsonRecord record = new NitfJsonRecord("two.ntf");
+        record.addImageSegment(TestImageSegments.create("first").get());
+        record.addImageSegment(TestImageSegments.create("second").get());
+        String json = record.toJson();
+
+        assertTrue(json, json.startsWith("{\"file\":\"two.ntf\",\"images\":[{\"IM\":\"IM\",\"IID1\":\"first\","));
+        assertTrue(json, json.contains("\"tres\":{}},{\"IM\":\"IM\",\"IID1\":\"second\","));
+        assertTrue(json, json.endsWith("\"tres\":{}}]}"));
+        assertTrue(json, json.contains("\"NROWS\":\"64\""));
+        assertTrue(json, json.contains("\"IMAG\":\"1.0\""));
+        assertFalse(json, json.contains("\"header\""));
+    }
+
+    @Test
+    public void testBlankValuesLeftOut() {
+        NitfJsonRecord record = new NitfJsonRecord("blank.ntf");
+        record.addImageSegment(TestImageSegments.create("blank").source("   ").get());
+        String json = record.toJson();
+
+        assertFalse(json, json.contains("\"ISORCE\""));
+        assertFalse(json, json.contains("\"IID2\""));
+        assertFalse(json, json.contains("\"TGTID\""));
+        assertFalse(json, json.contains("\"ICOM1\""));
+    }
+
+    @Test
+    public void testStringsEscaped() {
+        NitfJsonRecord record = new NitfJsonRecord("dir\\\"quoted\".ntf");
+        record.addImageSegment(TestImageSegments.create("escaped")
+                .source("a\tb")
+                .comment("line\none\u0001")
+                .get());
+        String json = record.toJson();
+
+        assertTrue(json, json.startsWith("{\"file\":\"dir\\\\\\\"quoted\\\".ntf\","));
+        assertTrue(json, json.contains("\"ISORCE\":\"a\\tb\""));
+        assertTrue(json, json.contains("\"ICOM1\":\"line\\none\\u0001\""));
+    }
+}
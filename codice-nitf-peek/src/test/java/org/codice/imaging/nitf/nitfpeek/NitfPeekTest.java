@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class NitfPeekTest {
+    private static final int THREADS = 2;
+
+    /**
+     * With every worker busy and the queue full, the next file is processed on the walking thread,
+     * so a large tree never queues more than a few paths.
+     */
+    @Test
+    public void testWorkerPoolIsBounded() throws InterruptedException {
+        ExecutorService workerPool = NitfPeek.createWorkerPool(THREADS);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                workerPool.execute(() -> {
+                    started.countDown();
+                    awaitQuietly(finish);
+                });
+            }
+
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            for (int i = 0; i < THREADS * 4; i++) {
+                workerPool.execute(() -> {
+                });
+            }
+
+            workerPool.execute(() -> ranOn.set(Thread.currentThread()));
+            assertEquals(Thread.currentThread(), ranOn.get());
+        } finally {
+            finish.countDown();
+            workerPool.shutdown();
+        }
+
+        assertTrue(workerPool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
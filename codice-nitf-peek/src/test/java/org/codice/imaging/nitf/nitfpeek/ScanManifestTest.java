@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ScanManifestTest {
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path manifestFile = Files.createTempFile("scan-manifest", ".tsv");
+
+        try {
+            ScanManifest manifest = new ScanManifest();
+            ScanManifest.Entry plain = new ScanManifest.Entry(100, 1234567890L, "");
+            ScanManifest.Entry hashed = new ScanManifest.Entry(200, 1234567891L, "cafe");
+            manifest.put("a.ntf", plain);
+            manifest.put("dir\twith tab/b.ntf", hashed);
+            manifest.save(manifestFile);
+
+            ScanManifest loaded = ScanManifest.load(manifestFile);
+
+            assertEquals(plain, loaded.get("a.ntf"));
+            assertEquals(hashed, loaded.get("dir\twith tab/b.ntf"));
+            assertNull(loaded.get("c.ntf"));
+            assertFalse(Files.exists(manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp")));
+        } finally {
+            Files.delete(manifestFile);
+        }
+
+        // a first scan has no manifest to load
+        assertEquals(0, ScanManifest.load(manifestFile).countMissingFrom(new ScanManifest()));
+    }
+
+    @Test
+    public void testUnchangedFileMatches() throws IOException {
+        Path file = createFile(1000);
+
+        try {
+            assertEquals(ScanManifest.describe(file, false), ScanManifest.describe(file, false));
+            assertEquals(ScanManifest.describe(file, true), ScanManifest.describe(file, true));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testChangedSizeDetected() throws IOException {
+        Path file = createFile(1000);
+
+        try {
+            ScanManifest.Entry before = ScanManifest.describe(file, false);
+            FileTime lastModified = Files.getLastModifiedTime(file);
+
+            Files.write(file, new byte[1001]);
+            Files.setLastModifiedTime(file, lastModified);
+
+            assertFalse(before.equals(ScanManifest.describe(file, false)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * A rewrite that keeps the size and modification time is only caught by the hash, whether it
+     * is in the first or the last 64 KB of the file.
+     */
+    @Test
+    public void testChangedContentDetectedByHash() throws IOException {
+        assertContentChangeDetected(1000, 10);
+        assertContentChangeDetected(200 * 1024, 200 * 1024 - 10);
+    }
+
+    @Test
+    public void testCountMissingFrom() {
+        ScanManifest previous = new ScanManifest();
+        previous.put("a.ntf", new ScanManifest.Entry(1, 1, ""));
+        previous.put("b.ntf", new ScanManifest.Entry(1, 1, ""));
+        previous.put("c.ntf", new ScanManifest.Entry(1, 1, ""));
+
+        ScanManifest current = new ScanManifest();
+        current.put("b.ntf", new ScanManifest.Entry(2, 2, ""));
+        current.put("d.ntf", new ScanManifest.Entry(1, 1, ""));
+
+        assertEquals(2, previous.countMissingFrom(current));
+        assertEquals(1, current.countMissingFrom(previous));
+    }
+
+    private static void assertContentChangeDetected(int size, int changedByte) throws IOException {
+        Path file = createFile(size);
+
+        try {
+            ScanManifest.Entry before = ScanManifest.describe(file, true);
+            ScanManifest.Entry beforeWithoutHash = ScanManifest.describe(file, false);
+            FileTime lastModified = Files.getLastModifiedTime(file);
+
+            byte[] data = Files.readAllBytes(file);
+            data[changedByte]++;
+            Files.write(file, data);
+            Files.setLastModifiedTime(file, lastModified);
+
+            assertEquals(beforeWithoutHash, ScanManifest.describe(file, false));
+            assertFalse(before.equals(ScanManifest.describe(file, true)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Path createFile(int size) throws IOException {
+        Path file = Files.createTempFile("scan-manifest", ".ntf");
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) 'N');
+        Files.write(file, data);
+        return file;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) Connexta, LLC
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.imaging.nitf.nitfpeek;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.core.security.SecurityClassification;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.codice.imaging.nitf.nitfbuilder.SecurityMetadataCreationFlow;
+
+/**
+ * Image segments with every attribute peek prints filled in, and no image data.
+ */
+final class TestImageSegments {
+    private TestImageSegments() {
+    }
+
+    static ImageSegmentCreationFlow create(String identifier) {
+        return new ImageSegmentCreationFlow()
+                .identifier(identifier)
+                .identifier2("")
+                .source("")
+                .rows(64)
+                .columns(64)
+                .pixelValueType(PixelValueType.INTEGER)
+                .representation(ImageRepresentation.MONOCHROME)
+                .category(ImageCategory.VISUAL)
+                .actualBitsPerPixelPerBand(8)
+                .bitsPerPixelPerBand(8)
+                .pixelJustification(PixelJustification.RIGHT)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.NONE)
+                .compression(ImageCompression.NOTCOMPRESSED)
+                .mode(ImageMode.BLOCKINTERLEVE)
+                .blocksPerRow(1)
+                .blocksPerColumn(1)
+                .pixelsPerBlockHorizontal(64)
+                .pixelsPerBlockVertical(64)
+                .displayLevel(1)
+                .attachmentLevel(0)
+                .magnification("1.0 ")
+                .fileType(FileType.NITF_TWO_ONE)
+                .securityMetadata(new SecurityMetadataCreationFlow()
+                        .classification(SecurityClassification.UNCLASSIFIED)
+                        .classificationSystem("")
+                        .codewords("")
+                        .controlAndHandling("")
+                        .releaseInstructions("")
+                        .declassificationType("")
+                        .declassificationDate("")
+                        .declassificationExemption("")
+                        .downgrade("")
+                        .downgradeDate("")
+                        .classificationText("")
+                        .classificationAuthorityType("")
+                        .classificationAuthority("")
+                        .classificationReason("")
+                        .sourceDate("")
+                        .controlNumber(""))
+                .band(new ImageBandImpl());
+    }
+}
@@ -0,0 +1,32 @@
+package org.codice.imaging.nitf.nitfbuilder;
+
+import org.codice.imaging.nitf.core.image.ImageCoordinatePair;
+
+class ImageCoordinatePairImpl implements ImageCoordinatePair {
+    private final double latitude;
+
+    private final double longitude;
+
+    private final String sourceFormat;
+
+    ImageCoordinatePairImpl(double latitude, double longitude, String sourceFormat) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.sourceFormat = sourceFormat;
+    }
+
+    @Override
+    public double getLatitude() {
+        return latitude;
+    }
+
+    @Override
+    public double getLongitude() {
+        return longitude;
+    }
+
+    @Override
+    public String getSourceFormat() {
+        return sourceFormat;
+    }
+}
@@ -0,0 +1,74 @@
+package org.codice.imaging.nitf.nitfbuilder;
+
+import org.codice.imaging.nitf.core.image.ImageCoordinates;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+
+import java.util.function.Supplier;
+
+/**
+ * Builds image corner coordinates from latitudes and longitudes, formatted for IGEOLO as either
+ * decimal degrees or degrees, minutes and seconds.
+ */
+public class ImageCoordinatesCreationFlow implements Supplier<ImageCoordinates> {
+    private ImageCoordinatesImpl imageCoordinates = new ImageCoordinatesImpl();
+
+    private final ImageCoordinatesRepresentation representation;
+
+    /**
+     * @param representation DECIMALDEGREES or GEOGRAPHIC.
+     */
+    public ImageCoordinatesCreationFlow(ImageCoordinatesRepresentation representation) {
+        if (representation != ImageCoordinatesRepresentation.DECIMALDEGREES
+                && representation != ImageCoordinatesRepresentation.GEOGRAPHIC) {
+            throw new IllegalArgumentException("Unsupported coordinate representation: " + representation);
+        }
+
+        this.representation = representation;
+    }
+
+    public ImageCoordinatesCreationFlow coordinate00(double latitude, double longitude) {
+        imageCoordinates.setCoordinate00(createPair(latitude, longitude));
+        return this;
+    }
+
+    public ImageCoordinatesCreationFlow coordinate0MaxCol(double latitude, double longitude) {
+        imageCoordinates.setCoordinate0MaxCol(createPair(latitude, longitude));
+        return this;
+    }
+
+    public ImageCoordinatesCreationFlow coordinateMaxRowMaxCol(double latitude, double longitude) {
+        imageCoordinates.setCoordinateMaxRowMaxCol(createPair(latitude, longitude));
+        return this;
+    }
+
+    public ImageCoordinatesCreationFlow coordinateMaxRow0(double latitude, double longitude) {
+        imageCoordinates.setCoordinateMaxRow0(createPair(latitude, longitude));
+        return this;
+    }
+
+    private ImageCoordinatePairImpl createPair(double latitude, double longitude) {
+        String sourceFormat;
+
+        if (representation == ImageCoordinatesRepresentation.DECIMALDEGREES) {
+            sourceFormat = String.format("%+07.3f%+08.3f", latitude, longitude);
+        } else {
+            sourceFormat = toDegreesMinutesSeconds(latitude, 2, 'N', 'S')
+                    + toDegreesMinutesSeconds(longitude, 3, 'E', 'W');
+        }
+
+        return new ImageCoordinatePairImpl(latitude, longitude, sourceFormat);
+    }
+
+    private static String toDegreesMinutesSeconds(double value, int degreeDigits, char positive,
+            char negative) {
+        long seconds = Math.round(Math.abs(value) * 3600);
+
+        return String.format("%0" + degreeDigits + "d%02d%02d%c", seconds / 3600, seconds / 60 % 60,
+                seconds % 60, value < 0 ? negative : positive);
+    }
+
+    @Override
+    public ImageCoordinates get() {
+        return imageCoordinates;
+    }
+}
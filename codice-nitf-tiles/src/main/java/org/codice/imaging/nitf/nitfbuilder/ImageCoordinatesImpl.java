@@ -0,0 +1,50 @@
+package org.codice.imaging.nitf.nitfbuilder;
+
+import org.codice.imaging.nitf.core.image.ImageCoordinatePair;
+import org.codice.imaging.nitf.core.image.ImageCoordinates;
+
+class ImageCoordinatesImpl implements ImageCoordinates {
+    private ImageCoordinatePair coordinate00;
+
+    private ImageCoordinatePair coordinate0MaxCol;
+
+    private ImageCoordinatePair coordinateMaxRowMaxCol;
+
+    private ImageCoordinatePair coordinateMaxRow0;
+
+    @Override
+    public ImageCoordinatePair getCoordinate00() {
+        return coordinate00;
+    }
+
+    public void setCoordinate00(ImageCoordinatePair coordinate00) {
+        this.coordinate00 = coordinate00;
+    }
+
+    @Override
+    public ImageCoordinatePair getCoordinate0MaxCol() {
+        return coordinate0MaxCol;
+    }
+
+    public void setCoordinate0MaxCol(ImageCoordinatePair coordinate0MaxCol) {
+        this.coordinate0MaxCol = coordinate0MaxCol;
+    }
+
+    @Override
+    public ImageCoordinatePair getCoordinateMaxRowMaxCol() {
+        return coordinateMaxRowMaxCol;
+    }
+
+    public void setCoordinateMaxRowMaxCol(ImageCoordinatePair coordinateMaxRowMaxCol) {
+        this.coordinateMaxRowMaxCol = coordinateMaxRowMaxCol;
+    }
+
+    @Override
+    public ImageCoordinatePair getCoordinateMaxRow0() {
+        return coordinateMaxRow0;
+    }
+
+    public void setCoordinateMaxRow0(ImageCoordinatePair coordinateMaxRow0) {
+        this.coordinateMaxRow0 = coordinateMaxRow0;
+    }
+}
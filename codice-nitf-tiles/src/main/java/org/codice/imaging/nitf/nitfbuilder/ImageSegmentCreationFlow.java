@@ -1,9 +1,10 @@
-package org.codice.imaging.nitf.viewer.nitfbuilder;
+package org.codice.imaging.nitf.nitfbuilder;
 
 import org.codice.imaging.nitf.core.common.DateTime;
 import org.codice.imaging.nitf.core.common.FileType;
 import org.codice.imaging.nitf.core.image.*;
-import org.codice.imaging.nitf.core.security.FileSecurityMetadata;
+import org.codice.imaging.nitf.core.security.SecurityMetadata;
+import org.codice.imaging.nitf.core.tre.Tre;
 
 import javax.imageio.stream.ImageInputStream;
 import java.util.function.Supplier;
@@ -11,7 +12,7 @@ import java.util.function.Supplier;
 public class ImageSegmentCreationFlow implements Supplier<ImageSegment> {
     private ImageSegment imageSegment;
 
-    private Supplier<FileSecurityMetadata> securityMetadataSupplier;
+    private Supplier<? extends SecurityMetadata> securityMetadataSupplier;
 
     public ImageSegmentCreationFlow() {
         this.imageSegment = new ImageSegmentImpl();
@@ -162,7 +163,7 @@ public class ImageSegmentCreationFlow implements Supplier<ImageSegment> {
         return this;
     }
 
-    public ImageSegmentCreationFlow imageDataLength(int imageDataLength) {
+    public ImageSegmentCreationFlow imageDataLength(long imageDataLength) {
         imageSegment.setDataLength(imageDataLength);
         return this;
     }
@@ -182,11 +183,16 @@ public class ImageSegmentCreationFlow implements Supplier<ImageSegment> {
         return this;
     }
 
-    public ImageSegmentCreationFlow securityMetadata(Supplier<FileSecurityMetadata> securityMetadataSupplier) {
+    public ImageSegmentCreationFlow securityMetadata(Supplier<? extends SecurityMetadata> securityMetadataSupplier) {
         this.securityMetadataSupplier = securityMetadataSupplier;
         return this;
     }
 
+    public ImageSegmentCreationFlow tre(Tre tre) {
+        imageSegment.getTREsRawStructure().add(tre);
+        return this;
+    }
+
     public ImageSegmentCreationFlow fileType(FileType fileType) {
         imageSegment.setFileType(fileType);
         return this;
@@ -1,4 +1,4 @@
-package org.codice.imaging.nitf.viewer.nitfbuilder;
+package org.codice.imaging.nitf.nitfbuilder;
 
 import org.codice.imaging.nitf.core.common.DateTime;
 import org.codice.imaging.nitf.core.common.FileType;
@@ -1,4 +1,4 @@
-package org.codice.imaging.nitf.viewer.nitfbuilder;
+package org.codice.imaging.nitf.nitfbuilder;
 
 import org.codice.imaging.nitf.core.security.SecurityClassification;
 import org.codice.imaging.nitf.core.security.SecurityMetadata;
@@ -95,6 +95,6 @@ public class SecurityMetadataCreationFlow implements Supplier<SecurityMetadata>
 
     @Override
     public SecurityMetadata get() {
-        return null;
+        return securityMetadata;
     }
 }
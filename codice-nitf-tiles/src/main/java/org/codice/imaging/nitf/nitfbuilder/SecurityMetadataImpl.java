@@ -1,4 +1,4 @@
-package org.codice.imaging.nitf.viewer.nitfbuilder;
+package org.codice.imaging.nitf.nitfbuilder;
 
 import org.codice.imaging.nitf.core.common.FileType;
 import org.codice.imaging.nitf.core.security.SecurityClassification;
@@ -22,6 +22,7 @@ class SecurityMetadataImpl implements SecurityMetadata {
     private static final int XSSRDT_LENGTH = 8;
     private static final int XSCTLN_LENGTH = 15;
     private static final int XSDEVT20_LENGTH = 40;
+    private static final String DOWNGRADE_EVENT_MAGIC = "999998";
 
     private FileType nitfFileType = FileType.NITF_TWO_ONE;
     private SecurityClassification securityClassification = SecurityClassification.UNKNOWN;
@@ -140,7 +141,7 @@ class SecurityMetadataImpl implements SecurityMetadata {
 
     @Override
     public boolean hasDowngradeMagicValue() {
-        return this.hasDowngradeMagicValue();
+        return DOWNGRADE_EVENT_MAGIC.equals(this.downgradeDateOrSpecialCase);
     }
 
     @Override
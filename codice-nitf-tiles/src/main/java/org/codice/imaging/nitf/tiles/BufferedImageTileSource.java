@@ -0,0 +1,60 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Tiles over an image that is already in memory, such as a chip.
+ */
+class BufferedImageTileSource implements TileSource {
+    static final int DEFAULT_TILE_SIZE = 512;
+
+    private final BufferedImage image;
+
+    private final int tileWidth;
+
+    private final int tileHeight;
+
+    BufferedImageTileSource(BufferedImage image) {
+        this(image, DEFAULT_TILE_SIZE, DEFAULT_TILE_SIZE);
+    }
+
+    BufferedImageTileSource(BufferedImage image, int tileWidth, int tileHeight) {
+        this.image = image;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    @Override
+    public BufferedImage peekTile(int tileColumn, int tileRow) {
+        return getTile(tileColumn, tileRow);
+    }
+
+    @Override
+    public BufferedImage getTile(int tileColumn, int tileRow) {
+        int x = tileColumn * tileWidth;
+        int y = tileRow * tileHeight;
+
+        return image.getSubimage(x, y, Math.min(tileWidth, image.getWidth() - x),
+                Math.min(tileHeight, image.getHeight() - y));
+    }
+}
@@ -0,0 +1,467 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.EOFException;
+import java.io.IOException;
+import javax.imageio.stream.ImageInputStream;
+
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.codice.imaging.nitf.render.NitfRenderer;
+
+/**
+ * Tiles over an image segment, one tile per NITF block. Each block is decoded on its own by
+ * handing the renderer a single block copy of the segment whose data is just that block's bytes,
+ * so opening an image costs nothing until its tiles are drawn.
+ * <p>
+ * Blocks can be found without decoding for uncompressed images with whole-byte blocks and for
+ * JPEG images with one JPEG stream per block. A multi-band IMODE B JPEG image has a stream per
+ * band per block, so it, anything else, and any image with a single block, is rendered whole and
+ * then cut into tiles. Either way decoded tiles go into the TileCache, and are decoded again if
+ * they have been evicted. A large whole image is kept in a memory mapped copy until its tiles
+ * are released, so evicted tiles are copied out of that rather than rendering the image again.
+ */
+public class ImageSegmentTileSource implements TileSource {
+    private static final int SOI = 0xD8;
+
+    private static final int EOI = 0xD9;
+
+    private static final int RST0 = 0xD0;
+
+    private static final int RST7 = 0xD7;
+
+    private static final int TEM = 0x01;
+
+    private final ImageSegment imageSegment;
+
+    private final ImageInputStream fileStream;
+
+    private final int width;
+
+    private final int height;
+
+    private final boolean blockAddressable;
+
+    private long[] jpegBlockStarts;
+
+    private long[] jpegBlockEnds;
+
+    private TileSource offHeapImage;
+
+    /**
+     * Tiles over a segment whose data no other thread reads.
+     */
+    public ImageSegmentTileSource(ImageSegment imageSegment) {
+        this(imageSegment, imageSegment.getData());
+    }
+
+    /**
+     * @param fileStream the stream the segment was parsed from. Its lock is held, and its position
+     * put back, whenever the segment's data is read, because segments share the file stream and
+     * their tiles are decoded on several threads.
+     */
+    public ImageSegmentTileSource(ImageSegment imageSegment, ImageInputStream fileStream) {
+        this.imageSegment = imageSegment;
+        this.fileStream = fileStream;
+        this.width = (int) imageSegment.getNumberOfColumns();
+        this.height = (int) imageSegment.getNumberOfRows();
+        this.blockAddressable = isBlockAddressable(imageSegment);
+    }
+
+    private static boolean isBlockAddressable(ImageSegment imageSegment) {
+        if (imageSegment.getData() == null
+                || imageSegment.getNumberOfBlocksPerRow() * imageSegment.getNumberOfBlocksPerColumn() < 2) {
+            return false;
+        }
+
+        ImageMode mode = imageSegment.getImageMode();
+
+        if (imageSegment.getImageCompression() == ImageCompression.JPEG) {
+            return mode == ImageMode.PIXELINTERLEVE
+                    || (mode == ImageMode.BLOCKINTERLEVE && imageSegment.getNumBands() == 1);
+        }
+
+        return imageSegment.getImageCompression() == ImageCompression.NOTCOMPRESSED
+                && mode != ImageMode.UNKNOWN
+                && getBitsPerBandBlock(imageSegment) % Byte.SIZE == 0
+                && imageSegment.getDataLength() >= getBitsPerBandBlock(imageSegment) / Byte.SIZE
+                        * imageSegment.getNumBands() * getNumberOfBlocks(imageSegment);
+    }
+
+    private static long getBitsPerBandBlock(ImageSegment imageSegment) {
+        return imageSegment.getNumberOfPixelsPerBlockHorizontal()
+                * imageSegment.getNumberOfPixelsPerBlockVertical()
+                * imageSegment.getNumberOfBitsPerPixelPerBand();
+    }
+
+    private static int getNumberOfBlocks(ImageSegment imageSegment) {
+        return imageSegment.getNumberOfBlocksPerRow() * imageSegment.getNumberOfBlocksPerColumn();
+    }
+
+    /**
+     * Does the work needed before any tile can be decoded, which for a JPEG image means finding
+     * its blocks.
+     *
+     * @param progressListener told the number of blocks prepared so far, up to one per tile.
+     */
+    public void prepare(ProgressListener progressListener) throws IOException {
+        if (blockAddressable && imageSegment.getImageCompression() == ImageCompression.JPEG) {
+            indexJpegBlocks(progressListener);
+        }
+
+        progressListener.progress(getNumberOfBlocks(imageSegment));
+    }
+
+    ImageSegment getImageSegment() {
+        return imageSegment;
+    }
+
+    /**
+     * @return true if tiles are decoded a block at a time, false if the whole image is rendered
+     * to get the first of them.
+     */
+    public boolean isBlockAddressable() {
+        return blockAddressable;
+    }
+
+    /**
+     * Drops this image's decoded tiles from the TileCache, along with any off heap copy of the
+     * whole image.
+     */
+    public synchronized void releaseTiles() {
+        offHeapImage = null;
+        TileCache.removeAll(this);
+    }
+
+    /**
+     * Reads the original samples of a region, rather than the rendered pixels, for writing out at
+     * the image's own bit depth and bands.
+     *
+     * @return IMODE B image data for the region in blocks of the given size, or null if the
+     * samples can't be read without decoding: the image is compressed, masked or has samples that
+     * aren't whole bytes.
+     */
+    public RawBlockInputStream readRawBlocks(Rectangle region, int blockWidth, int blockHeight) {
+        if (imageSegment.getData() == null
+                || imageSegment.getImageCompression() != ImageCompression.NOTCOMPRESSED
+                || imageSegment.getImageMode() == ImageMode.UNKNOWN
+                || imageSegment.getNumberOfBitsPerPixelPerBand() % Byte.SIZE != 0
+                || imageSegment.getDataLength() < getBitsPerBandBlock(imageSegment) / Byte.SIZE
+                        * imageSegment.getNumBands() * getNumberOfBlocks(imageSegment)) {
+            return null;
+        }
+
+        return new RawBlockInputStream(imageSegment, new RangeImageInputStream(imageSegment.getData(), fileStream,
+                0, imageSegment.getDataLength()), region, blockWidth, blockHeight);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return blockAddressable ? (int) imageSegment.getNumberOfPixelsPerBlockHorizontal()
+                : BufferedImageTileSource.DEFAULT_TILE_SIZE;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return blockAddressable ? (int) imageSegment.getNumberOfPixelsPerBlockVertical()
+                : BufferedImageTileSource.DEFAULT_TILE_SIZE;
+    }
+
+    @Override
+    public BufferedImage peekTile(int tileColumn, int tileRow) {
+        return TileCache.get(this, new TileKey(0, tileColumn, tileRow));
+    }
+
+    @Override
+    public BufferedImage getTile(int tileColumn, int tileRow) throws IOException {
+        BufferedImage tile = peekTile(tileColumn, tileRow);
+
+        if (tile == null) {
+            tile = blockAddressable ? decodeBlock(tileColumn, tileRow)
+                    : decodeWholeImage(tileColumn, tileRow);
+            TileCache.put(this, new TileKey(0, tileColumn, tileRow), tile);
+        }
+
+        return tile;
+    }
+
+    /**
+     * Decodes a tile of a block addressable image without looking in or adding to the TileCache,
+     * for callers such as batch tools that read each tile once.
+     *
+     * @throws IllegalStateException if the image isn't block addressable.
+     */
+    public BufferedImage decodeTile(int tileColumn, int tileRow) throws IOException {
+        if (!blockAddressable) {
+            throw new IllegalStateException("Image " + imageSegment.getIdentifier() + " can't be decoded by block");
+        }
+
+        return decodeBlock(tileColumn, tileRow);
+    }
+
+    private BufferedImage decodeBlock(int tileColumn, int tileRow) throws IOException {
+        return new NitfRenderer().render(createBlockSegment(
+                getBlockData(tileRow * imageSegment.getNumberOfBlocksPerRow() + tileColumn)));
+    }
+
+    /**
+     * @return the bytes of one block, in the order the renderer expects for a single block image.
+     */
+    RangeImageInputStream getBlockData(int block) throws IOException {
+        if (imageSegment.getImageCompression() == ImageCompression.JPEG) {
+            indexJpegBlocks(null);
+            return new RangeImageInputStream(imageSegment.getData(), fileStream, jpegBlockStarts[block],
+                    jpegBlockEnds[block] - jpegBlockStarts[block]);
+        }
+
+        return getUncompressedBlockData(block);
+    }
+
+    private RangeImageInputStream getUncompressedBlockData(int block) {
+        long bytesPerBandBlock = getBitsPerBandBlock(imageSegment) / Byte.SIZE;
+        int bands = imageSegment.getNumBands();
+
+        if (imageSegment.getImageMode() != ImageMode.BANDSEQUENTIAL) {
+            return new RangeImageInputStream(imageSegment.getData(), fileStream, block * bytesPerBandBlock * bands,
+                    bytesPerBandBlock * bands);
+        }
+
+        long[] offsets = new long[bands];
+        long[] lengths = new long[bands];
+
+        for (int band = 0; band < bands; band++) {
+            offsets[band] = ((long) band * getNumberOfBlocks(imageSegment) + block) * bytesPerBandBlock;
+            lengths[band] = bytesPerBandBlock;
+        }
+
+        return new RangeImageInputStream(imageSegment.getData(), fileStream, offsets, lengths);
+    }
+
+    private ImageSegment createBlockSegment(RangeImageInputStream blockData) {
+        ImageSegmentCreationFlow blockSegment = new ImageSegmentCreationFlow()
+                .identifier(imageSegment.getIdentifier())
+                .rows(getTileHeight())
+                .columns(getTileWidth())
+                .pixelValueType(imageSegment.getPixelValueType())
+                .representation(imageSegment.getImageRepresentation())
+                .category(imageSegment.getImageCategory())
+                .actualBitsPerPixelPerBand(imageSegment.getActualBitsPerPixelPerBand())
+                .bitsPerPixelPerBand(imageSegment.getNumberOfBitsPerPixelPerBand())
+                .pixelJustification(imageSegment.getPixelJustification())
+                .coordinateRepresentation(imageSegment.getImageCoordinatesRepresentation())
+                .compression(imageSegment.getImageCompression())
+                .compressionRate(imageSegment.getCompressionRate())
+                .mode(imageSegment.getImageMode())
+                .blocksPerRow(1)
+                .blocksPerColumn(1)
+                .pixelsPerBlockHorizontal(getTileWidth())
+                .pixelsPerBlockVertical(getTileHeight())
+                .fileType(imageSegment.getFileType())
+                .securityMetadata(imageSegment::getSecurityMetadata)
+                .imageData(blockData)
+                .imageDataLength(blockData.length());
+
+        for (int band = 0; band < imageSegment.getNumBands(); band++) {
+            blockSegment.band(imageSegment.getImageBandZeroBase(band));
+        }
+
+        return blockSegment.get();
+    }
+
+    /**
+     * Renders the whole image so that the heap copy can be collected as soon as this returns. A
+     * large image is copied off the heap a tile row at a time, and only the requested tile is
+     * cached. A smaller one has copies of all of its tiles cached instead.
+     */
+    private synchronized BufferedImage decodeWholeImage(int tileColumn, int tileRow) throws IOException {
+        // another thread may have rendered the image while this one was waiting
+        BufferedImage tile = peekTile(tileColumn, tileRow);
+
+        if (tile != null) {
+            return tile;
+        }
+
+        if (offHeapImage != null) {
+            return copy(offHeapImage.getTile(tileColumn, tileRow));
+        }
+
+        BufferedImage image = imageSegment.getData() == null ? null : renderWholeImage();
+
+        if (image == null) {
+            image = new BufferedImage(Math.max(width, 1), Math.max(height, 1),
+                    BufferedImage.TYPE_INT_ARGB);
+        }
+
+        if (OffHeapImages.isLarge(image)) {
+            BufferedImage mappedImage = OffHeapImages.copyOffHeap(image, getTileHeight());
+
+            if (mappedImage != null) {
+                offHeapImage = new BufferedImageTileSource(mappedImage, getTileWidth(), getTileHeight());
+                return copy(offHeapImage.getTile(tileColumn, tileRow));
+            }
+        }
+
+        TileSource wholeImage = new BufferedImageTileSource(image, getTileWidth(), getTileHeight());
+
+        for (int row = 0; row < getTilesDown(); row++) {
+            for (int column = 0; column < getTilesAcross(); column++) {
+                if (column == tileColumn && row == tileRow) {
+                    tile = copy(wholeImage.getTile(column, row));
+                } else {
+                    TileCache.put(this, new TileKey(0, column, row), copy(wholeImage.getTile(column, row)));
+                }
+            }
+        }
+
+        return tile;
+    }
+
+    /**
+     * Renders the segment itself, which reads its data directly, so the file stream is held for
+     * the whole render. This is only the fallback for images that can't be decoded by block.
+     */
+    private BufferedImage renderWholeImage() throws IOException {
+        synchronized (fileStream) {
+            long filePosition = fileStream.getStreamPosition();
+
+            try {
+                return new NitfRenderer().render(imageSegment);
+            } finally {
+                fileStream.seek(filePosition);
+            }
+        }
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getColorModel(),
+                image.getRaster().createCompatibleWritableRaster(image.getWidth(), image.getHeight()),
+                image.isAlphaPremultiplied(), null);
+        copy.getRaster().setRect(image.getRaster());
+        return copy;
+    }
+
+    /**
+     * Finds the start and end of every block's JPEG stream by walking the JPEG markers. Entropy
+     * coded data never contains a marker, because every 0xFF in it is followed by a stuffed zero
+     * or a restart marker.
+     */
+    private synchronized void indexJpegBlocks(ProgressListener progressListener) throws IOException {
+        if (jpegBlockStarts != null) {
+            return;
+        }
+
+        int blocks = getNumberOfBlocks(imageSegment);
+        long[] starts = new long[blocks];
+        long[] ends = new long[blocks];
+        MarkerScanner scanner = new MarkerScanner(new RangeImageInputStream(imageSegment.getData(), fileStream,
+                0, imageSegment.getDataLength()), imageSegment.getDataLength());
+
+        for (int block = 0; block < blocks; block++) {
+            while (scanner.nextMarker() != SOI) {
+                // skip any padding between blocks
+            }
+
+            starts[block] = scanner.getPosition() - 2;
+            int marker;
+
+            while ((marker = scanner.nextMarker()) != EOI) {
+                if (marker != TEM && (marker < RST0 || marker > RST7)) {
+                    scanner.skip(scanner.readUnsignedShort() - 2);
+                }
+            }
+
+            ends[block] = scanner.getPosition();
+
+            if (progressListener != null) {
+                progressListener.progress(block + 1);
+            }
+        }
+
+        jpegBlockEnds = ends;
+        jpegBlockStarts = starts;
+    }
+
+    /**
+     * Reads through the image data in large chunks, since reading single bytes from a file backed
+     * stream is slow.
+     */
+    private static class MarkerScanner {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final ImageInputStream data;
+
+        private final long length;
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private long bufferStart = 0;
+
+        private int bufferLength = 0;
+
+        private long position = 0;
+
+        MarkerScanner(ImageInputStream data, long length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        int nextMarker() throws IOException {
+            while (true) {
+                if (readUnsignedByte() != 0xFF) {
+                    continue;
+                }
+
+                int marker = readUnsignedByte();
+
+                while (marker == 0xFF) {
+                    marker = readUnsignedByte();
+                }
+
+                if (marker != 0) {
+                    return marker;
+                }
+            }
+        }
+
+        int readUnsignedShort() throws IOException {
+            return (readUnsignedByte() << Byte.SIZE) | readUnsignedByte();
+        }
+
+        void skip(long count) {
+            position += count;
+        }
+
+        private int readUnsignedByte() throws IOException {
+            if (position >= length) {
+                throw new EOFException("Ran out of JPEG data at " + position);
+            }
+
+            if (position < bufferStart || position >= bufferStart + bufferLength) {
+                bufferStart = position;
+                bufferLength = (int) Math.min(BUFFER_SIZE, length - position);
+
+                data.seek(bufferStart);
+                data.readFully(buffer, 0, bufferLength);
+            }
+
+            return buffer[(int) (position++ - bufferStart)] & 0xff;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A single bank DataBuffer of bytes, shorts or ints held in a memory mapped temporary file rather
+ * than on the heap, so that very large rasters neither count against the heap nor make the
+ * garbage collector copy them. The file is deleted as soon as it is mapped where the platform
+ * allows it, and otherwise when the JVM exits.
+ * <p>
+ * Rasters over this buffer work with every standard SampleModel, but Java2D has no fast paths
+ * for it, so it suits images that are copied from rather than drawn directly.
+ */
+class MappedDataBuffer extends DataBuffer {
+    // a power of two, and a multiple of every element size, so no element spans two chunks
+    private static final int CHUNK_SHIFT = 30;
+
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+
+    private final int elementShift;
+
+    MappedDataBuffer(int dataType, int size) throws IOException {
+        super(dataType, size);
+
+        switch (dataType) {
+        case TYPE_BYTE:
+            elementShift = 0;
+            break;
+        case TYPE_USHORT:
+        case TYPE_SHORT:
+            elementShift = 1;
+            break;
+        case TYPE_INT:
+            elementShift = 2;
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported data type: " + dataType);
+        }
+
+        long length = (long) size << elementShift;
+        chunks = new ByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        File file = File.createTempFile("raster", ".tmp");
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(length);
+            FileChannel channel = randomAccessFile.getChannel();
+
+            for (int i = 0; i < chunks.length; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                        Math.min(CHUNK_MASK + 1, length - offset)).order(ByteOrder.nativeOrder());
+            }
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public int getElem(int bank, int i) {
+        long offset = (long) i << elementShift;
+        ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & CHUNK_MASK);
+
+        switch (elementShift) {
+        case 0:
+            return chunk.get(position) & 0xff;
+        case 1:
+            return dataType == TYPE_SHORT ? chunk.getShort(position) : chunk.getShort(position) & 0xffff;
+        default:
+            return chunk.getInt(position);
+        }
+    }
+
+    @Override
+    public void setElem(int bank, int i, int value) {
+        long offset = (long) i << elementShift;
+        ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+        int position = (int) (offset & CHUNK_MASK);
+
+        switch (elementShift) {
+        case 0:
+            chunk.put(position, (byte) value);
+            break;
+        case 1:
+            chunk.putShort(position, (short) value);
+            break;
+        default:
+            chunk.putInt(position, value);
+            break;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * An ImageInputStream over a memory mapped file. Seeks are free and reads are copies straight out
+ * of the page cache, so parsing headers and reading segment data at random need no system calls
+ * or intermediate buffers, and opening a file again reuses whatever the OS already has cached.
+ * The mapping lasts until the stream is garbage collected, not just until it is closed. Closing
+ * more than once does nothing, so every owner of a shared stream can close it.
+ * <p>
+ * Reads and seeks are synchronized, so threads that share the stream can hold its lock across a
+ * seek and the reads that follow it. Readers other than the parser should put the position back
+ * before they release the lock, so that the parser can carry on from where it was.
+ */
+public class MappedFileImageInputStream extends ImageInputStreamImpl {
+    // a power of two below the 2GB limit on a single mapping
+    private static final int CHUNK_SHIFT = 30;
+
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+
+    private final long length;
+
+    private volatile ProgressListener progressListener = null;
+
+    private boolean closed = false;
+
+    public MappedFileImageInputStream(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            length = channel.size();
+            chunks = new ByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+
+            for (int i = 0; i < chunks.length; i++) {
+                long offset = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(CHUNK_MASK + 1, length - offset));
+            }
+        }
+    }
+
+    /**
+     * @param progressListener told the stream position after each read, or null.
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public synchronized long getStreamPosition() throws IOException {
+        return super.getStreamPosition();
+    }
+
+    @Override
+    public synchronized void seek(long position) throws IOException {
+        super.seek(position);
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        checkClosed();
+
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        int value = chunks[(int) (streamPos >>> CHUNK_SHIFT)].get((int) (streamPos & CHUNK_MASK)) & 0xff;
+        streamPos++;
+        reportProgress();
+        return value;
+    }
+
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int count) throws IOException {
+        checkClosed();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        // read through a duplicate, so that the mapped buffer's own position is never touched
+        ByteBuffer chunk = chunks[(int) (streamPos >>> CHUNK_SHIFT)].duplicate();
+        int position = (int) (streamPos & CHUNK_MASK);
+        int available = Math.min(count, chunk.limit() - position);
+
+        chunk.position(position);
+        chunk.get(buffer, offset, available);
+        streamPos += available;
+        reportProgress();
+        return available;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private void reportProgress() throws IOException {
+        ProgressListener listener = progressListener;
+
+        if (listener != null) {
+            listener.progress(streamPos);
+        }
+    }
+}
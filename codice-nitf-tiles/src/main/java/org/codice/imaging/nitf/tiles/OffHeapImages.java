@@ -0,0 +1,86 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+/**
+ * Moves large images off the heap. Images bigger than nitf.viewer.offHeapMegabytes (32 by
+ * default) can be copied into a MappedDataBuffer, so that they neither count against the heap
+ * nor make the garbage collector copy them.
+ */
+final class OffHeapImages {
+    private static final long THRESHOLD = Long.getLong("nitf.viewer.offHeapMegabytes", 32) * 1024 * 1024;
+
+    private OffHeapImages() {
+    }
+
+    static boolean isLarge(BufferedImage image) {
+        SampleModel sampleModel = image.getSampleModel();
+        return (long) image.getWidth() * image.getHeight() * sampleModel.getNumDataElements()
+                * DataBuffer.getDataTypeSize(sampleModel.getDataType()) / Byte.SIZE > THRESHOLD;
+    }
+
+    /**
+     * Copies an image into a MappedDataBuffer a strip at a time.
+     *
+     * @return the off heap copy, or null if the image's sample model can't be held in a
+     * MappedDataBuffer.
+     */
+    static BufferedImage copyOffHeap(BufferedImage image, int stripHeight) throws IOException {
+        SampleModel sampleModel = image.getSampleModel()
+                .createCompatibleSampleModel(image.getWidth(), image.getHeight());
+        long size = getMappableSize(sampleModel);
+
+        if (size <= 0 || size > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        WritableRaster raster = Raster.createWritableRaster(sampleModel,
+                new MappedDataBuffer(sampleModel.getDataType(), (int) size), null);
+
+        for (int y = 0; y < image.getHeight(); y += stripHeight) {
+            raster.setRect(image.getRaster().createChild(0, y, image.getWidth(),
+                    Math.min(stripHeight, image.getHeight() - y), 0, y, null));
+        }
+
+        return new BufferedImage(image.getColorModel(), raster, image.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * @return the number of elements a single bank buffer for the sample model needs, or -1 if it
+     * can't be held in a MappedDataBuffer.
+     */
+    private static long getMappableSize(SampleModel sampleModel) {
+        int dataType = sampleModel.getDataType();
+
+        if (dataType != DataBuffer.TYPE_BYTE && dataType != DataBuffer.TYPE_USHORT
+                && dataType != DataBuffer.TYPE_SHORT && dataType != DataBuffer.TYPE_INT) {
+            return -1;
+        }
+
+        if (sampleModel instanceof ComponentSampleModel) {
+            for (int bankIndex : ((ComponentSampleModel) sampleModel).getBankIndices()) {
+                if (bankIndex != 0) {
+                    return -1;
+                }
+            }
+
+            return (long) ((ComponentSampleModel) sampleModel).getScanlineStride() * sampleModel.getHeight();
+        } else if (sampleModel instanceof SinglePixelPackedSampleModel) {
+            return (long) ((SinglePixelPackedSampleModel) sampleModel).getScanlineStride()
+                    * sampleModel.getHeight();
+        } else if (sampleModel instanceof MultiPixelPackedSampleModel) {
+            return (long) ((MultiPixelPackedSampleModel) sampleModel).getScanlineStride()
+                    * sampleModel.getHeight();
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,12 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Told how much of a long running job is done, such as the bytes of a file parsed or the blocks
+ * of an image indexed. Throwing InterruptedIOException cancels the job, which passes it on.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    void progress(long done) throws InterruptedIOException;
+}
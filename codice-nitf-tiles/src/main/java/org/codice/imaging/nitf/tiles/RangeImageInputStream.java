@@ -0,0 +1,94 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.io.IOException;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * A read-only view of one or more byte ranges of another stream, read as if they were one
+ * contiguous stream. Each read seeks the underlying stream while holding the lock of the file
+ * stream it comes from, and puts the file stream's position back afterwards, so any number of
+ * views can share one file between threads, and with the parser still reading it.
+ */
+class RangeImageInputStream extends ImageInputStreamImpl {
+    private final ImageInputStream source;
+
+    private final ImageInputStream fileStream;
+
+    private final long[] offsets;
+
+    private final long[] lengths;
+
+    private final long length;
+
+    /**
+     * @param fileStream the stream the source was parsed from, or the source itself.
+     */
+    RangeImageInputStream(ImageInputStream source, ImageInputStream fileStream, long offset, long length) {
+        this(source, fileStream, new long[] {offset}, new long[] {length});
+    }
+
+    RangeImageInputStream(ImageInputStream source, ImageInputStream fileStream, long[] offsets,
+            long[] lengths) {
+        this.source = source;
+        this.fileStream = fileStream;
+        this.offsets = offsets;
+        this.lengths = lengths;
+
+        long total = 0;
+
+        for (long rangeLength : lengths) {
+            total += rangeLength;
+        }
+
+        this.length = total;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        long rangeStart = 0;
+        int range = 0;
+
+        while (streamPos >= rangeStart + lengths[range]) {
+            rangeStart += lengths[range];
+            range++;
+        }
+
+        long positionInRange = streamPos - rangeStart;
+        int toRead = (int) Math.min(count, lengths[range] - positionInRange);
+        int read;
+
+        synchronized (fileStream) {
+            long filePosition = fileStream.getStreamPosition();
+
+            try {
+                source.seek(offsets[range] + positionInRange);
+                read = source.read(buffer, offset, toRead);
+            } finally {
+                fileStream.seek(filePosition);
+            }
+        }
+
+        if (read > 0) {
+            streamPos += read;
+        }
+
+        return read;
+    }
+}
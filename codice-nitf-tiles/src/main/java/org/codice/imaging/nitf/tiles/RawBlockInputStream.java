@@ -0,0 +1,185 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+
+/**
+ * The original samples of a region of an uncompressed image segment, as uncompressed IMODE B
+ * image data in blocks of a given size, so that a chip keeps the bit depth and every band of
+ * its parent. Samples are copied as they are, whatever the parent's IMODE, and only one output
+ * block is held in memory. Blocks at the right and bottom edges are padded with zeros.
+ */
+public class RawBlockInputStream extends ImageInputStreamImpl {
+    private final ImageSegment segment;
+
+    private final ImageInputStream data;
+
+    private final Rectangle region;
+
+    private final int blockWidth;
+
+    private final int blockHeight;
+
+    private final int blocksAcross;
+
+    private final int bands;
+
+    private final int bytesPerSample;
+
+    private final int bytesPerBlock;
+
+    private final long length;
+
+    private final byte[] block;
+
+    private int blockIndex = -1;
+
+    private ProgressListener progressListener = null;
+
+    /**
+     * @param data the segment's data, read through a stream that holds the file stream's lock.
+     */
+    RawBlockInputStream(ImageSegment segment, ImageInputStream data, Rectangle region, int blockWidth,
+            int blockHeight) {
+        this.segment = segment;
+        this.data = data;
+        this.region = region;
+        this.blockWidth = blockWidth;
+        this.blockHeight = blockHeight;
+        this.blocksAcross = (region.width + blockWidth - 1) / blockWidth;
+        this.bands = segment.getNumBands();
+        this.bytesPerSample = segment.getNumberOfBitsPerPixelPerBand() / Byte.SIZE;
+        this.bytesPerBlock = blockWidth * blockHeight * bands * bytesPerSample;
+        this.length = (long) bytesPerBlock * blocksAcross * ((region.height + blockHeight - 1) / blockHeight);
+        this.block = new byte[bytesPerBlock];
+    }
+
+    /**
+     * @param progressListener told the number of each block as it is read, counting from 1.
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        loadBlock((int) (streamPos / bytesPerBlock));
+        return block[(int) (streamPos++ % bytesPerBlock)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        loadBlock((int) (streamPos / bytesPerBlock));
+        int withinBlock = (int) (streamPos % bytesPerBlock);
+        int available = Math.min(count, bytesPerBlock - withinBlock);
+        System.arraycopy(block, withinBlock, buffer, offset, available);
+        streamPos += available;
+        return available;
+    }
+
+    private void loadBlock(int index) throws IOException {
+        if (index == blockIndex) {
+            return;
+        }
+
+        if (progressListener != null) {
+            progressListener.progress(index + 1);
+        }
+
+        int x = region.x + index % blocksAcross * blockWidth;
+        int y = region.y + index / blocksAcross * blockHeight;
+        int width = Math.min(blockWidth, region.x + region.width - x);
+        int height = Math.min(blockHeight, region.y + region.height - y);
+
+        Arrays.fill(block, (byte) 0);
+
+        for (int band = 0; band < bands; band++) {
+            for (int row = 0; row < height; row++) {
+                readRow(band, x, y + row, width,
+                        ((band * blockHeight + row) * blockWidth) * bytesPerSample);
+            }
+        }
+
+        blockIndex = index;
+    }
+
+    /**
+     * Copies one band of a run of pixels in a source row into the block, a source block at a time.
+     */
+    private void readRow(int band, int x, int y, int width, int position) throws IOException {
+        int sourceBlockWidth = (int) segment.getNumberOfPixelsPerBlockHorizontal();
+        int end = x + width;
+
+        while (x < end) {
+            int runEnd = Math.min(end, (x / sourceBlockWidth + 1) * sourceBlockWidth);
+            int stride = getSampleStride();
+            byte[] run = new byte[(runEnd - x - 1) * stride + bytesPerSample];
+
+            data.seek(getSampleOffset(band, x, y));
+            data.readFully(run);
+
+            for (int i = 0; i < runEnd - x; i++) {
+                System.arraycopy(run, i * stride, block, position, bytesPerSample);
+                position += bytesPerSample;
+            }
+
+            x = runEnd;
+        }
+    }
+
+    private int getSampleStride() {
+        return segment.getImageMode() == ImageMode.PIXELINTERLEVE ? bands * bytesPerSample : bytesPerSample;
+    }
+
+    /**
+     * @return the offset in the segment's data of one band of a pixel, for each IMODE.
+     */
+    private long getSampleOffset(int band, int x, int y) {
+        long sourceBlockWidth = segment.getNumberOfPixelsPerBlockHorizontal();
+        long sourceBlockHeight = segment.getNumberOfPixelsPerBlockVertical();
+        long samplesPerBandBlock = sourceBlockWidth * sourceBlockHeight;
+        long sourceBlock = y / sourceBlockHeight * segment.getNumberOfBlocksPerRow() + x / sourceBlockWidth;
+        long column = x % sourceBlockWidth;
+        long row = y % sourceBlockHeight;
+        long sample;
+
+        switch (segment.getImageMode()) {
+        case PIXELINTERLEVE:
+            sample = sourceBlock * samplesPerBandBlock * bands + (row * sourceBlockWidth + column) * bands + band;
+            break;
+        case ROWINTERLEVE:
+            sample = sourceBlock * samplesPerBandBlock * bands + (row * bands + band) * sourceBlockWidth + column;
+            break;
+        case BANDSEQUENTIAL:
+            sample = ((long) band * segment.getNumberOfBlocksPerRow() * segment.getNumberOfBlocksPerColumn()
+                    + sourceBlock) * samplesPerBandBlock + row * sourceBlockWidth + column;
+            break;
+        default:
+            sample = (sourceBlock * bands + band) * samplesPerBandBlock + row * sourceBlockWidth + column;
+            break;
+        }
+
+        return sample * bytesPerSample;
+    }
+}
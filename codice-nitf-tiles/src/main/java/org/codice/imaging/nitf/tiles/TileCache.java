@@ -0,0 +1,126 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.SampleModel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The decoded tiles of every open image, held within a fixed number of bytes. When the budget is
+ * exceeded the least recently used tiles are dropped, and are decoded again from their image
+ * segment if they are needed later. The budget defaults to half of the maximum heap and can be
+ * set in megabytes with the nitf.viewer.cacheMegabytes system property.
+ */
+public final class TileCache {
+    private static final long MINIMUM_BUDGET = 64L * 1024 * 1024;
+
+    private static final Map<CacheKey, BufferedImage> TILES = new LinkedHashMap<>(256, 0.75f, true);
+
+    private static final long BUDGET = getDefaultBudget();
+
+    private static long size = 0;
+
+    private TileCache() {
+    }
+
+    private static long getDefaultBudget() {
+        Long megabytes = Long.getLong("nitf.viewer.cacheMegabytes");
+
+        if (megabytes != null) {
+            return Math.max(MINIMUM_BUDGET, megabytes * 1024 * 1024);
+        }
+
+        return Math.max(MINIMUM_BUDGET, Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    /**
+     * @param owner the tile source the tile belongs to, compared by identity.
+     * @param key identifies the tile within its source.
+     * @return the tile, or null if it isn't cached.
+     */
+    public static synchronized BufferedImage get(Object owner, Object key) {
+        return TILES.get(new CacheKey(owner, key));
+    }
+
+    /**
+     * Caches a tile, unless it is larger than the whole budget, and evicts older tiles to make
+     * room for it.
+     */
+    public static synchronized void put(Object owner, Object key, BufferedImage tile) {
+        long tileSize = sizeOf(tile);
+
+        if (tileSize > BUDGET) {
+            return;
+        }
+
+        BufferedImage previous = TILES.put(new CacheKey(owner, key), tile);
+
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+
+        size += tileSize;
+        evict();
+    }
+
+    /**
+     * Drops every tile belonging to a source, for example when its frame is closed.
+     */
+    public static synchronized void removeAll(Object owner) {
+        Iterator<Map.Entry<CacheKey, BufferedImage>> entries = TILES.entrySet().iterator();
+
+        while (entries.hasNext()) {
+            Map.Entry<CacheKey, BufferedImage> entry = entries.next();
+
+            if (entry.getKey().owner == owner) {
+                size -= sizeOf(entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    private static void evict() {
+        Iterator<BufferedImage> leastRecentlyUsed = TILES.values().iterator();
+
+        while (size > BUDGET && leastRecentlyUsed.hasNext()) {
+            size -= sizeOf(leastRecentlyUsed.next());
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage tile) {
+        SampleModel sampleModel = tile.getSampleModel();
+
+        return (long) tile.getWidth() * tile.getHeight() * sampleModel.getNumDataElements()
+                * DataBuffer.getDataTypeSize(sampleModel.getTransferType()) / Byte.SIZE;
+    }
+
+    private static final class CacheKey {
+        private final Object owner;
+
+        private final Object key;
+
+        CacheKey(Object owner, Object key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey cacheKey = (CacheKey) other;
+            return owner == cacheKey.owner && key.equals(cacheKey.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(owner), key);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.util.Objects;
+
+/**
+ * Identifies a tile by its pyramid level, where 0 is full resolution, and its column and row at
+ * that level.
+ */
+public final class TileKey {
+    private final int level;
+
+    private final int column;
+
+    private final int row;
+
+    public TileKey(int level, int column, int row) {
+        this.level = level;
+        this.column = column;
+        this.row = row;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TileKey)) {
+            return false;
+        }
+
+        TileKey key = (TileKey) other;
+        return level == key.level && column == key.column && row == key.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, column, row);
+    }
+}
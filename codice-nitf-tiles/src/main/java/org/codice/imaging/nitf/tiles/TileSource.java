@@ -0,0 +1,73 @@
+package org.codice.imaging.nitf.tiles;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * An image that is decoded one tile at a time, so that only the parts being looked at need to be
+ * in memory. Tiles are numbered from the top left; tiles on the right and bottom edges may extend
+ * past the image.
+ */
+public interface TileSource {
+    int getWidth();
+
+    int getHeight();
+
+    int getTileWidth();
+
+    int getTileHeight();
+
+    BufferedImage getTile(int tileColumn, int tileRow) throws IOException;
+
+    /**
+     * @return the tile if it can be had without decoding anything, otherwise null.
+     */
+    default BufferedImage peekTile(int tileColumn, int tileRow) {
+        return null;
+    }
+
+    default int getTilesAcross() {
+        return (getWidth() + getTileWidth() - 1) / getTileWidth();
+    }
+
+    default int getTilesDown() {
+        return (getHeight() + getTileHeight() - 1) / getTileHeight();
+    }
+
+    /**
+     * Decodes the tiles that cover a region and copies them into a new image.
+     */
+    default BufferedImage read(Rectangle region) throws IOException {
+        Rectangle bounds = region.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+        BufferedImage result = null;
+
+        if (bounds.isEmpty()) {
+            return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        for (int tileRow = bounds.y / getTileHeight();
+                tileRow <= (bounds.y + bounds.height - 1) / getTileHeight(); tileRow++) {
+            for (int tileColumn = bounds.x / getTileWidth();
+                    tileColumn <= (bounds.x + bounds.width - 1) / getTileWidth(); tileColumn++) {
+                BufferedImage tile = getTile(tileColumn, tileRow);
+
+                if (result == null) {
+                    result = new BufferedImage(tile.getColorModel(),
+                            tile.getRaster().createCompatibleWritableRaster(bounds.width, bounds.height),
+                            tile.isAlphaPremultiplied(), null);
+                }
+
+                // clip the tile first: setRect copies nothing from interleaved rasters placed at
+                // negative offsets
+                Rectangle part = new Rectangle(tileColumn * getTileWidth(), tileRow * getTileHeight(),
+                        tile.getWidth(), tile.getHeight()).intersection(bounds);
+                result.getRaster().setRect(part.x - bounds.x, part.y - bounds.y,
+                        tile.getRaster().createChild(part.x - tileColumn * getTileWidth(),
+                                part.y - tileRow * getTileHeight(), part.width, part.height, 0, 0, null));
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package org.codice.imaging.nitf.tiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.junit.Test;
+
+public class ImageSegmentTileSourceTest {
+    private static final int BLOCK_WIDTH = 16;
+
+    private static final int BLOCK_HEIGHT = 8;
+
+    private static final int BLOCKS_PER_ROW = 3;
+
+    private static final int BLOCKS_PER_COLUMN = 2;
+
+    @Test
+    public void testIndexJpegBlocks() throws IOException {
+        List<byte[]> blocks = new ArrayList<>();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        Random random = new Random(0);
+
+        for (int block = 0; block < BLOCKS_PER_ROW * BLOCKS_PER_COLUMN; block++) {
+            BufferedImage image = new BufferedImage(BLOCK_WIDTH, BLOCK_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+
+            for (int y = 0; y < BLOCK_HEIGHT; y++) {
+                for (int x = 0; x < BLOCK_WIDTH; x++) {
+                    // noise, so the entropy coded data holds stuffed 0xFF bytes
+                    image.getRaster().setSample(x, y, 0, random.nextInt(256));
+                }
+            }
+
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", jpeg);
+            blocks.add(jpeg.toByteArray());
+            data.write(jpeg.toByteArray());
+
+            // padding between blocks, which the index has to skip
+            data.write(new byte[block % 3]);
+        }
+
+        byte[] bytes = data.toByteArray();
+        ImageSegment segment = createSegment(ImageCompression.JPEG, ImageMode.BLOCKINTERLEVE, 1,
+                new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes)), bytes.length);
+        ImageSegmentTileSource tileSource = new ImageSegmentTileSource(segment);
+
+        assertTrue(tileSource.isBlockAddressable());
+
+        for (int block = 0; block < blocks.size(); block++) {
+            ImageInputStream blockData = tileSource.getBlockData(block);
+            byte[] blockBytes = new byte[(int) blockData.length()];
+            blockData.readFully(blockBytes);
+
+            assertArrayEquals(blocks.get(block), blockBytes);
+        }
+    }
+
+    @Test
+    public void testMultiBandJpegBlockAddressable() {
+        assertFalse(new ImageSegmentTileSource(createSegment(ImageCompression.JPEG, ImageMode.BLOCKINTERLEVE, 3,
+                new MemoryCacheImageInputStream(new ByteArrayInputStream(new byte[0])), 0))
+                .isBlockAddressable());
+        assertTrue(new ImageSegmentTileSource(createSegment(ImageCompression.JPEG, ImageMode.PIXELINTERLEVE, 3,
+                new MemoryCacheImageInputStream(new ByteArrayInputStream(new byte[0])), 0))
+                .isBlockAddressable());
+    }
+
+    @Test
+    public void testBandSequentialBlockData() throws IOException {
+        int bands = 3;
+        int bandBlockLength = BLOCK_WIDTH * BLOCK_HEIGHT;
+        int blocks = BLOCKS_PER_ROW * BLOCKS_PER_COLUMN;
+        byte[] bytes = new byte[bandBlockLength * blocks * bands];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i / bandBlockLength);
+        }
+
+        ImageSegment segment = createSegment(ImageCompression.NOTCOMPRESSED, ImageMode.BANDSEQUENTIAL, bands,
+                new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes)), bytes.length);
+        ImageInputStream blockData = new ImageSegmentTileSource(segment).getBlockData(4);
+
+        assertEquals(bandBlockLength * bands, blockData.length());
+
+        for (int band = 0; band < bands; band++) {
+            for (int i = 0; i < bandBlockLength; i++) {
+                assertEquals(band * blocks + 4, blockData.read());
+            }
+        }
+    }
+
+    private static ImageSegment createSegment(ImageCompression compression, ImageMode mode, int bands,
+            ImageInputStream data, long dataLength) {
+        ImageSegmentCreationFlow segment = new ImageSegmentCreationFlow()
+                .identifier("test")
+                .rows(BLOCK_HEIGHT * BLOCKS_PER_COLUMN)
+                .columns(BLOCK_WIDTH * BLOCKS_PER_ROW)
+                .pixelValueType(PixelValueType.INTEGER)
+                .representation(bands == 1 ? ImageRepresentation.MONOCHROME : ImageRepresentation.RGBTRUECOLOUR)
+                .category(ImageCategory.VISUAL)
+                .actualBitsPerPixelPerBand(8)
+                .bitsPerPixelPerBand(8)
+                .pixelJustification(PixelJustification.RIGHT)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.NONE)
+                .compression(compression)
+                .mode(mode)
+                .blocksPerRow(BLOCKS_PER_ROW)
+                .blocksPerColumn(BLOCKS_PER_COLUMN)
+                .pixelsPerBlockHorizontal(BLOCK_WIDTH)
+                .pixelsPerBlockVertical(BLOCK_HEIGHT)
+                .fileType(FileType.NITF_TWO_ONE)
+                .securityMetadata(() -> null)
+                .imageData(data)
+                .imageDataLength(dataLength);
+
+        for (int band = 0; band < bands; band++) {
+            segment.band(new ImageBandImpl());
+        }
+
+        return segment.get();
+    }
+}
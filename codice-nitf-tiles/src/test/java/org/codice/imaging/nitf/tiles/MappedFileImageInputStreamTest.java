@@ -0,0 +1,136 @@
+package org.codice.imaging.nitf.tiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class MappedFileImageInputStreamTest {
+    private static final int LENGTH = 1024 * 1024;
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testSeekAndRead() throws IOException {
+        File file = createFile();
+
+        try (MappedFileImageInputStream input = new MappedFileImageInputStream(file)) {
+            assertEquals(LENGTH, input.length());
+            assertEquals(valueAt(0), input.read());
+
+            byte[] buffer = new byte[100];
+            input.seek(LENGTH - 50);
+            assertEquals(50, input.read(buffer, 0, buffer.length));
+
+            for (int i = 0; i < 50; i++) {
+                assertEquals(valueAt(LENGTH - 50 + i), buffer[i] & 0xff);
+            }
+
+            assertEquals(-1, input.read());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * The frame and an abandoned load can both close the same stream.
+     */
+    @Test
+    public void testCloseTwice() throws IOException {
+        File file = createFile();
+
+        try {
+            MappedFileImageInputStream input = new MappedFileImageInputStream(file);
+            input.close();
+            input.close();
+
+            try {
+                input.read();
+                fail("Read from a closed stream");
+            } catch (IOException e) {
+                // expected
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Decoding threads read ranges of the stream while another thread reads straight through it,
+     * as the parser does while the first segments are being prepared.
+     */
+    @Test
+    public void testRangesReadWhileParsing() throws Exception {
+        File file = createFile();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try (MappedFileImageInputStream input = new MappedFileImageInputStream(file)) {
+            List<Future<?>> readers = new ArrayList<>();
+
+            for (int thread = 0; thread < THREADS; thread++) {
+                long seed = thread;
+                readers.add(executor.submit(() -> {
+                    readRandomRanges(input, new Random(seed));
+                    return null;
+                }));
+            }
+
+            byte[] buffer = new byte[777];
+
+            for (int position = 0; position < LENGTH; position += buffer.length) {
+                input.readFully(buffer, 0, Math.min(buffer.length, LENGTH - position));
+
+                for (int i = 0; i < buffer.length && position + i < LENGTH; i++) {
+                    assertEquals("parsed byte " + (position + i), valueAt(position + i), buffer[i] & 0xff);
+                }
+            }
+
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+            file.delete();
+        }
+    }
+
+    private static void readRandomRanges(MappedFileImageInputStream input, Random random) throws IOException {
+        byte[] buffer = new byte[4096];
+
+        for (int range = 0; range < 500; range++) {
+            int offset = random.nextInt(LENGTH - buffer.length);
+            RangeImageInputStream rangeInput = new RangeImageInputStream(input, input, offset, buffer.length);
+            rangeInput.readFully(buffer);
+
+            for (int i = 0; i < buffer.length; i++) {
+                assertEquals("range byte " + (offset + i), valueAt(offset + i), buffer[i] & 0xff);
+            }
+        }
+    }
+
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("mapped", ".bin");
+        byte[] data = new byte[LENGTH];
+
+        for (int i = 0; i < LENGTH; i++) {
+            data[i] = (byte) valueAt(i);
+        }
+
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private static int valueAt(long position) {
+        return (int) ((position * 31 + (position >> 8)) & 0xff);
+    }
+}
@@ -0,0 +1,46 @@
+package org.codice.imaging.nitf.tiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class OffHeapImagesTest {
+    private static final int WIDTH = 37;
+
+    private static final int HEIGHT = 23;
+
+    @Test
+    public void testCopyRgbInStrips() throws IOException {
+        assertCopy(BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    public void testCopyGreyInStrips() throws IOException {
+        assertCopy(BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    private static void assertCopy(int imageType) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, imageType);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.getRaster().setSample(x, y, 0, (x * 7 + y * 3) & 0xff);
+            }
+        }
+
+        // a strip height that doesn't divide the image height
+        BufferedImage copy = OffHeapImages.copyOffHeap(image, 5);
+
+        assertTrue(copy.getRaster().getDataBuffer() instanceof MappedDataBuffer);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals("pixel " + x + "," + y, image.getRGB(x, y), copy.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.codice.imaging.nitf.tiles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.junit.Test;
+
+public class RawBlockInputStreamTest {
+    private static final int BLOCK_WIDTH = 4;
+
+    private static final int BLOCK_HEIGHT = 3;
+
+    private static final int BLOCKS_PER_ROW = 2;
+
+    private static final int BLOCKS_PER_COLUMN = 2;
+
+    private static final int BANDS = 2;
+
+    private static final Rectangle REGION = new Rectangle(2, 1, 5, 4);
+
+    @Test
+    public void testReadPixelInterleaved() throws IOException {
+        assertRegion(ImageMode.PIXELINTERLEVE);
+    }
+
+    @Test
+    public void testReadBandSequential() throws IOException {
+        assertRegion(ImageMode.BANDSEQUENTIAL);
+    }
+
+    @Test
+    public void testCompressedNotReadable() {
+        ImageSegment segment = createSegment(ImageMode.BLOCKINTERLEVE, ImageCompression.JPEG, new byte[0]);
+
+        assertNull(new ImageSegmentTileSource(segment).readRawBlocks(REGION, BLOCK_WIDTH, BLOCK_HEIGHT));
+    }
+
+    /**
+     * Reads a region that crosses all four source blocks into blocks of the source block size,
+     * and checks every sample, and the zero padding, of the IMODE B result.
+     */
+    private static void assertRegion(ImageMode mode) throws IOException {
+        ImageSegment segment = createSegment(mode, ImageCompression.NOTCOMPRESSED, createData(mode));
+        ImageInputStream blocks = new ImageSegmentTileSource(segment)
+                .readRawBlocks(REGION, BLOCK_WIDTH, BLOCK_HEIGHT);
+        int blocksAcross = 2;
+        int blocksDown = 2;
+
+        assertEquals((long) blocksAcross * blocksDown * BLOCK_WIDTH * BLOCK_HEIGHT * BANDS * 2, blocks.length());
+
+        for (int blockRow = 0; blockRow < blocksDown; blockRow++) {
+            for (int blockColumn = 0; blockColumn < blocksAcross; blockColumn++) {
+                for (int band = 0; band < BANDS; band++) {
+                    for (int y = 0; y < BLOCK_HEIGHT; y++) {
+                        for (int x = 0; x < BLOCK_WIDTH; x++) {
+                            int imageX = REGION.x + blockColumn * BLOCK_WIDTH + x;
+                            int imageY = REGION.y + blockRow * BLOCK_HEIGHT + y;
+                            int expected = REGION.contains(imageX, imageY) ? sample(imageX, imageY, band) : 0;
+
+                            assertEquals("sample " + imageX + "," + imageY + " band " + band, expected,
+                                    blocks.readUnsignedShort());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int sample(int x, int y, int band) {
+        return 1000 * band + 100 * y + x + 300;
+    }
+
+    private static byte[] createData(ImageMode mode) {
+        int width = BLOCK_WIDTH * BLOCKS_PER_ROW;
+        int height = BLOCK_HEIGHT * BLOCKS_PER_COLUMN;
+        byte[] data = new byte[width * height * BANDS * 2];
+        int position = 0;
+
+        if (mode == ImageMode.BANDSEQUENTIAL) {
+            for (int band = 0; band < BANDS; band++) {
+                for (int blockRow = 0; blockRow < BLOCKS_PER_COLUMN; blockRow++) {
+                    for (int blockColumn = 0; blockColumn < BLOCKS_PER_ROW; blockColumn++) {
+                        for (int y = 0; y < BLOCK_HEIGHT; y++) {
+                            for (int x = 0; x < BLOCK_WIDTH; x++) {
+                                position = put(data, position, sample(blockColumn * BLOCK_WIDTH + x,
+                                        blockRow * BLOCK_HEIGHT + y, band));
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int blockRow = 0; blockRow < BLOCKS_PER_COLUMN; blockRow++) {
+                for (int blockColumn = 0; blockColumn < BLOCKS_PER_ROW; blockColumn++) {
+                    for (int y = 0; y < BLOCK_HEIGHT; y++) {
+                        for (int x = 0; x < BLOCK_WIDTH; x++) {
+                            for (int band = 0; band < BANDS; band++) {
+                                position = put(data, position, sample(blockColumn * BLOCK_WIDTH + x,
+                                        blockRow * BLOCK_HEIGHT + y, band));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return data;
+    }
+
+    private static int put(byte[] data, int position, int sample) {
+        data[position] = (byte) (sample >> 8);
+        data[position + 1] = (byte) sample;
+        return position + 2;
+    }
+
+    private static ImageSegment createSegment(ImageMode mode, ImageCompression compression, byte[] data) {
+        ImageSegmentCreationFlow segment = new ImageSegmentCreationFlow()
+                .identifier("test")
+                .rows(BLOCK_HEIGHT * BLOCKS_PER_COLUMN)
+                .columns(BLOCK_WIDTH * BLOCKS_PER_ROW)
+                .pixelValueType(PixelValueType.INTEGER)
+                .representation(ImageRepresentation.MULTIBAND)
+                .category(ImageCategory.MULTISPECTRAL)
+                .actualBitsPerPixelPerBand(11)
+                .bitsPerPixelPerBand(16)
+                .pixelJustification(PixelJustification.RIGHT)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.NONE)
+                .compression(compression)
+                .mode(mode)
+                .blocksPerRow(BLOCKS_PER_ROW)
+                .blocksPerColumn(BLOCKS_PER_COLUMN)
+                .pixelsPerBlockHorizontal(BLOCK_WIDTH)
+                .pixelsPerBlockVertical(BLOCK_HEIGHT)
+                .fileType(FileType.NITF_TWO_ONE)
+                .securityMetadata(() -> null)
+                .imageData(new MemoryCacheImageInputStream(new ByteArrayInputStream(data)))
+                .imageDataLength(data.length);
+
+        for (int band = 0; band < BANDS; band++) {
+            segment.band(new ImageBandImpl());
+        }
+
+        return segment.get();
+    }
+}
@@ -0,0 +1,112 @@
+package org.codice.imaging.nitf.tiles;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TileSourceTest {
+    private static final int WIDTH = 10;
+
+    private static final int HEIGHT = 7;
+
+    private static final int TILE_WIDTH = 4;
+
+    private static final int TILE_HEIGHT = 3;
+
+    @Test
+    public void testReadUnalignedRegionAcrossTiles() throws IOException {
+        assertRegion(new Rectangle(2, 1, 5, 4));
+    }
+
+    @Test
+    public void testReadRegionInsideOneTile() throws IOException {
+        assertRegion(new Rectangle(5, 4, 2, 1));
+    }
+
+    @Test
+    public void testReadRegionOverEdgeTiles() throws IOException {
+        assertRegion(new Rectangle(3, 2, 20, 20));
+    }
+
+    private static void assertRegion(Rectangle region) throws IOException {
+        BufferedImage image = createImage();
+        BufferedImage result = new PatternTileSource(image).read(region);
+        Rectangle bounds = region.intersection(new Rectangle(0, 0, WIDTH, HEIGHT));
+
+        assertEquals(bounds.width, result.getWidth());
+        assertEquals(bounds.height, result.getHeight());
+
+        for (int y = 0; y < bounds.height; y++) {
+            for (int x = 0; x < bounds.width; x++) {
+                assertEquals("pixel " + x + "," + y, image.getRGB(bounds.x + x, bounds.y + y),
+                        result.getRGB(x, y));
+            }
+        }
+    }
+
+    private static BufferedImage createImage() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, (x * 20) << 16 | (y * 30) << 8 | (x + y));
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Cuts an image into interleaved tiles of their own, as a decoder would return them, with the
+     * right and bottom tiles extending past the image.
+     */
+    private static class PatternTileSource implements TileSource {
+        private final BufferedImage image;
+
+        PatternTileSource(BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        @Override
+        public int getTileWidth() {
+            return TILE_WIDTH;
+        }
+
+        @Override
+        public int getTileHeight() {
+            return TILE_HEIGHT;
+        }
+
+        @Override
+        public BufferedImage getTile(int tileColumn, int tileRow) {
+            BufferedImage tile = new BufferedImage(TILE_WIDTH, TILE_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+
+            for (int y = 0; y < TILE_HEIGHT; y++) {
+                for (int x = 0; x < TILE_WIDTH; x++) {
+                    int imageX = tileColumn * TILE_WIDTH + x;
+                    int imageY = tileRow * TILE_HEIGHT + y;
+
+                    if (imageX < WIDTH && imageY < HEIGHT) {
+                        tile.setRGB(x, y, image.getRGB(imageX, imageY));
+                    }
+                }
+            }
+
+            return tile;
+        }
+    }
+}
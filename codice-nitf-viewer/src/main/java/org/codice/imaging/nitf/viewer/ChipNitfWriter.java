@@ -0,0 +1,216 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.imageio.stream.ImageInputStream;
+
+import org.codice.imaging.nitf.core.header.NitfHeader;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinates;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.codice.imaging.nitf.fluent.impl.NitfCreationFlowImpl;
+import org.codice.imaging.nitf.nitfbuilder.ImageCoordinatesCreationFlow;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+import org.codice.imaging.nitf.tiles.ProgressListener;
+import org.codice.imaging.nitf.tiles.RawBlockInputStream;
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * Writes a chip as a single image NITF. Where the parent's samples can be read as they are, the
+ * chip keeps its parent's bit depth, bands and representation, written as uncompressed IMODE B
+ * blocks. Otherwise the rendered pixels are written as 8 bit monochrome or RGB blocks. Either way
+ * there is one block per chip tile, pulled as the file is written, so neither the chip nor the
+ * output file is ever held in memory. The file header and the image's security metadata come
+ * from the parent, the parent's geographic corner coordinates are interpolated to the corners of
+ * the chip, and the parent's image TREs are carried over except those tied to its pixel grid.
+ */
+final class ChipNitfWriter {
+    private static final String[] RGB_BANDS = {"R", "G", "B"};
+
+    /**
+     * TREs that describe the parent's pixel grid or corners, which would be wrong for the chip.
+     */
+    private static final Set<String> PIXEL_GRID_TRES = new HashSet<>(Arrays.asList(
+            "ICHIPB", "BLOCKA", "RPC00A", "RPC00B", "GEOLOB", "MAPLOB"));
+
+    private ChipNitfWriter() {
+    }
+
+    /**
+     * @param progressListener told the number of blocks written so far.
+     * @return the names of the parent's TREs that were left out.
+     */
+    static List<String> write(RegionTileSource chip, NitfHeader parentHeader, ImageSegment parent, File file,
+            ProgressListener progressListener) throws IOException {
+        RawBlockInputStream samples = readSamples(chip);
+        ImageInputStream imageData;
+        ImageSegmentCreationFlow imageSegment = new ImageSegmentCreationFlow()
+                .identifier(parent.getIdentifier())
+                .identifier2(parent.getImageIdentifier2())
+                .source(parent.getImageSource())
+                .dateTime(parent.getImageDateTime())
+                .targetId(parent.getImageTargetId())
+                .rows(chip.getHeight())
+                .columns(chip.getWidth())
+                .compression(ImageCompression.NOTCOMPRESSED)
+                .blocksPerRow(chip.getTilesAcross())
+                .blocksPerColumn(chip.getTilesDown())
+                .pixelsPerBlockHorizontal(chip.getTileWidth())
+                .pixelsPerBlockVertical(chip.getTileHeight())
+                .displayLevel(1)
+                .attachmentLevel(0)
+                .magnification("1.0 ")
+                .fileType(parent.getFileType())
+                .securityMetadata(parent::getSecurityMetadata);
+
+        if (samples != null) {
+            samples.setProgressListener(progressListener);
+            imageData = samples;
+            imageSegment.pixelValueType(parent.getPixelValueType())
+                    .representation(parent.getImageRepresentation())
+                    .category(parent.getImageCategory())
+                    .actualBitsPerPixelPerBand(parent.getActualBitsPerPixelPerBand())
+                    .bitsPerPixelPerBand(parent.getNumberOfBitsPerPixelPerBand())
+                    .pixelJustification(parent.getPixelJustification())
+                    .mode(ImageMode.BLOCKINTERLEVE);
+
+            for (int i = 0; i < parent.getNumBands(); i++) {
+                imageSegment.band(parent.getImageBandZeroBase(i));
+            }
+        } else {
+            int bands = TileImageInputStream.getBands(chip);
+            TileImageInputStream tileData = new TileImageInputStream(chip, bands);
+            tileData.setProgressListener(progressListener);
+            imageData = tileData;
+            imageSegment.pixelValueType(PixelValueType.INTEGER)
+                    .representation(bands == 1 ? ImageRepresentation.MONOCHROME
+                            : ImageRepresentation.RGBTRUECOLOUR)
+                    .category(ImageCategory.VISUAL)
+                    .actualBitsPerPixelPerBand(8)
+                    .bitsPerPixelPerBand(8)
+                    .pixelJustification(PixelJustification.RIGHT)
+                    .mode(bands == 1 ? ImageMode.BLOCKINTERLEVE : ImageMode.PIXELINTERLEVE);
+
+            for (int i = 0; i < bands; i++) {
+                ImageBandImpl band = new ImageBandImpl();
+                band.setImageRepresentation(bands == 1 ? "M" : RGB_BANDS[i]);
+                band.setSubCategory("");
+                imageSegment.band(band);
+            }
+        }
+
+        imageSegment.imageData(imageData).imageDataLength(imageData.length());
+
+        for (String comment : parent.getImageComments()) {
+            imageSegment.comment(comment);
+        }
+
+        List<String> droppedTres = new ArrayList<>();
+
+        for (Tre tre : parent.getTREsRawStructure().getTREs()) {
+            if (PIXEL_GRID_TRES.contains(tre.getName())) {
+                droppedTres.add(tre.getName());
+            } else {
+                imageSegment.tre(tre);
+            }
+        }
+
+        setCoordinates(imageSegment, parent, chip.getImageRegion());
+
+        try {
+            new NitfCreationFlowImpl()
+                    .fileHeader(() -> parentHeader)
+                    .imageSegment(imageSegment)
+                    .write(file.getPath());
+        } finally {
+            imageData.close();
+        }
+
+        return droppedTres;
+    }
+
+    /**
+     * @return the chip's original samples, or null if the image it was cut from can't be read
+     * without rendering.
+     */
+    private static RawBlockInputStream readSamples(RegionTileSource chip) {
+        TileSource source = chip.getSource();
+
+        while (source instanceof RegionTileSource) {
+            source = ((RegionTileSource) source).getSource();
+        }
+
+        return source instanceof ImageSegmentTileSource
+                ? ((ImageSegmentTileSource) source).readRawBlocks(chip.getImageRegion(), chip.getTileWidth(),
+                        chip.getTileHeight())
+                : null;
+    }
+
+    /**
+     * Interpolates the parent's four corners bilinearly to the chip's corners. Coordinates that
+     * aren't latitudes and longitudes are dropped.
+     */
+    private static void setCoordinates(ImageSegmentCreationFlow imageSegment, ImageSegment parent,
+            Rectangle region) {
+        ImageCoordinates coordinates = parent.getImageCoordinates();
+        ImageCoordinatesRepresentation representation = parent.getImageCoordinatesRepresentation();
+
+        if (coordinates == null || (representation != ImageCoordinatesRepresentation.DECIMALDEGREES
+                && representation != ImageCoordinatesRepresentation.GEOGRAPHIC)) {
+            imageSegment.coordinateRepresentation(ImageCoordinatesRepresentation.NONE);
+            return;
+        }
+
+        double maxColumn = Math.max(parent.getNumberOfColumns() - 1, 1);
+        double maxRow = Math.max(parent.getNumberOfRows() - 1, 1);
+        double left = region.x / maxColumn;
+        double right = (region.x + region.width - 1) / maxColumn;
+        double top = region.y / maxRow;
+        double bottom = (region.y + region.height - 1) / maxRow;
+        ImageCoordinatesCreationFlow chipCoordinates = new ImageCoordinatesCreationFlow(representation);
+
+        chipCoordinates.coordinate00(latitude(coordinates, left, top), longitude(coordinates, left, top))
+                .coordinate0MaxCol(latitude(coordinates, right, top), longitude(coordinates, right, top))
+                .coordinateMaxRowMaxCol(latitude(coordinates, right, bottom),
+                        longitude(coordinates, right, bottom))
+                .coordinateMaxRow0(latitude(coordinates, left, bottom),
+                        longitude(coordinates, left, bottom));
+
+        imageSegment.coordinateRepresentation(representation).coordinates(chipCoordinates.get());
+    }
+
+    private static double latitude(ImageCoordinates corners, double u, double v) {
+        return interpolate(corners.getCoordinate00().getLatitude(), corners.getCoordinate0MaxCol().getLatitude(),
+                corners.getCoordinateMaxRowMaxCol().getLatitude(), corners.getCoordinateMaxRow0().getLatitude(),
+                u, v);
+    }
+
+    private static double longitude(ImageCoordinates corners, double u, double v) {
+        return interpolate(corners.getCoordinate00().getLongitude(), corners.getCoordinate0MaxCol().getLongitude(),
+                corners.getCoordinateMaxRowMaxCol().getLongitude(), corners.getCoordinateMaxRow0().getLongitude(),
+                u, v);
+    }
+
+    private static double interpolate(double topLeft, double topRight, double bottomRight, double bottomLeft,
+            double u, double v) {
+        double top = topLeft + (topRight - topLeft) * u;
+        double bottom = bottomLeft + (bottomRight - bottomLeft) * u;
+
+        return top + (bottom - top) * v;
+    }
+}
@@ -2,24 +2,25 @@ package org.codice.imaging.nitf.viewer;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.awt.image.BufferedImage;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import org.codice.imaging.nitf.tiles.TileSource;
+
 public class ImagePanel extends JPanel {
     private PaintSurface paintSurface;
 
     private JSlider slider;
 
-    public ImagePanel(BufferedImage bufferedImage, int maxZoom) {
-        this.paintSurface = new PaintSurface(bufferedImage);
+    public ImagePanel(TileSource tileSource, int maxZoom) {
+        this.paintSurface = new PaintSurface(tileSource);
         this.setLayout(new BorderLayout());
 
-        paintSurface.setPreferredSize(new Dimension(bufferedImage.getWidth(),
-                bufferedImage.getHeight()));
+        paintSurface.setPreferredSize(new Dimension(tileSource.getWidth(),
+                tileSource.getHeight()));
         JScrollPane imagePane = new JScrollPane(paintSurface);
         imagePane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
         imagePane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_ALWAYS);
@@ -0,0 +1,92 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.io.InterruptedIOException;
+
+import org.codice.imaging.nitf.tiles.ProgressListener;
+
+/**
+ * A long running operation, such as loading or saving a file, from when it starts until it
+ * finishes. A job that reports its progress is cancelled at its next report, which throws
+ * InterruptedIOException once the job has been cancelled.
+ */
+class Job implements ProgressListener {
+    enum Kind {
+        LOAD("Load"), SAVE("Save"), THUMBNAIL("Thumbnail"), CHIP("Chip");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final long id;
+
+    private final Kind kind;
+
+    private final String description;
+
+    private final long total;
+
+    private final long startTime = System.nanoTime();
+
+    private volatile long done = 0;
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param total the amount of work progress is reported against, or 0 if it isn't known.
+     */
+    Job(long id, Kind kind, String description, long total) {
+        this.id = id;
+        this.kind = kind;
+        this.description = description;
+        this.total = total;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    long getDone() {
+        return done;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    @Override
+    public void progress(long done) throws InterruptedIOException {
+        this.done = done;
+
+        if (cancelled) {
+            throw new InterruptedIOException(kind + " of " + description + " cancelled");
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
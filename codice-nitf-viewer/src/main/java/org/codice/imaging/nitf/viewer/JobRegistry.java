@@ -0,0 +1,46 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The jobs that are running, safe to use from the EDT and from background threads at once.
+ */
+class JobRegistry {
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    Job start(Job.Kind kind, String description, long total) {
+        Job job = new Job(nextId.getAndIncrement(), kind, description, total);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * @return how long the job ran for, in milliseconds.
+     */
+    long finish(Job job) {
+        jobs.remove(job.getId());
+        return job.getElapsedMillis();
+    }
+
+    /**
+     * @return the running jobs, oldest first.
+     */
+    List<Job> getJobs() {
+        List<Job> running = new ArrayList<>(jobs.values());
+        running.sort(Comparator.comparingLong(Job::getId));
+        return running;
+    }
+
+    void cancelAll() {
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Lists the running jobs with their progress and how long they have been running, and cancels
+ * them. The list is refreshed twice a second, but only while the panel is showing.
+ */
+class JobsPanel extends JPanel {
+    private static final int REFRESH_MILLIS = 500;
+
+    private static final String[] COLUMNS = {"Job", "File", "Progress", "Elapsed"};
+
+    private final JobRegistry jobRegistry;
+
+    private final JobTableModel jobTableModel = new JobTableModel();
+
+    private final JTable jobTable = new JTable(jobTableModel);
+
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    JobsPanel(JobRegistry jobRegistry) {
+        super(new BorderLayout());
+        this.jobRegistry = jobRegistry;
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            for (int row : jobTable.getSelectedRows()) {
+                jobTableModel.getJob(row).cancel();
+            }
+        });
+
+        JButton cancelAllButton = new JButton("Cancel All");
+        cancelAllButton.addActionListener(e -> jobRegistry.cancelAll());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelButton);
+        buttons.add(cancelAllButton);
+
+        add(new JScrollPane(jobTable), BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Replaces the rows, keeping the selection on the same jobs.
+     */
+    private void refresh() {
+        Set<Long> selectedIds = new HashSet<>();
+
+        for (int row : jobTable.getSelectedRows()) {
+            selectedIds.add(jobTableModel.getJob(row).getId());
+        }
+
+        jobTableModel.setJobs(jobRegistry.getJobs());
+
+        for (int row = 0; row < jobTableModel.getRowCount(); row++) {
+            if (selectedIds.contains(jobTableModel.getJob(row).getId())) {
+                jobTable.addRowSelectionInterval(row, row);
+            }
+        }
+    }
+
+    private static class JobTableModel extends AbstractTableModel {
+        private List<Job> jobs = new ArrayList<>();
+
+        void setJobs(List<Job> jobs) {
+            this.jobs = jobs;
+            fireTableDataChanged();
+        }
+
+        Job getJob(int row) {
+            return jobs.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return jobs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Job job = jobs.get(row);
+
+            switch (column) {
+            case 0:
+                return job.isCancelled() ? job.getKind() + " (cancelling)" : job.getKind().toString();
+            case 1:
+                return job.getDescription();
+            case 2:
+                return job.getTotal() > 0 ? String.format("%d%%", job.getDone() * 100 / job.getTotal()) : "";
+            default:
+                return String.format("%.1f s", job.getElapsedMillis() / 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+
+import org.codice.imaging.nitf.tiles.ProgressListener;
+
+/**
+ * The progress of loading a file, shown in a ProgressMonitor: the first half of the bar is the
+ * bytes of the file parsed, and the second half the blocks of its JPEG images indexed, counted
+ * across all the segments being prepared in parallel. Once the monitor or the load's job is
+ * cancelled the next report throws InterruptedIOException, which stops the parser or the
+ * indexing where it is.
+ */
+class LoadProgress {
+    static final int MAXIMUM = 1000;
+
+    private static final int PARSED = MAXIMUM / 2;
+
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final ProgressMonitor progressMonitor;
+
+    private final Job job;
+
+    private final long fileLength;
+
+    private final AtomicLong blocksIndexed = new AtomicLong();
+
+    private final AtomicLong blocks = new AtomicLong();
+
+    private volatile long bytesParsed = 0;
+
+    private volatile int shown = -1;
+
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param progressMonitor a monitor running from 0 to MAXIMUM.
+     * @param job the load's job, which is also told the progress and can cancel it.
+     */
+    LoadProgress(ProgressMonitor progressMonitor, Job job, long fileLength) {
+        this.progressMonitor = progressMonitor;
+        this.job = job;
+        this.fileLength = Math.max(fileLength, 1);
+    }
+
+    void bytesParsed(long position) throws InterruptedIOException {
+        if (position > bytesParsed) {
+            bytesParsed = position;
+        }
+
+        update();
+    }
+
+    /**
+     * @return a listener for the blocks of one segment indexed so far.
+     */
+    ProgressListener segmentListener(long segmentBlocks) {
+        blocks.addAndGet(segmentBlocks);
+        long[] reported = {0};
+
+        return done -> {
+            blocksIndexed.addAndGet(done - reported[0]);
+            reported[0] = done;
+            update();
+        };
+    }
+
+    boolean isCancelled() {
+        return cancelled || job.isCancelled();
+    }
+
+    void done() {
+        SwingUtilities.invokeLater(progressMonitor::close);
+    }
+
+    private void update() throws InterruptedIOException {
+        if (cancelled || progressMonitor.isCanceled()) {
+            cancelled = true;
+            job.cancel();
+        }
+
+        long totalBlocks = blocks.get();
+        long indexed = blocksIndexed.get();
+        int progress = (int) (PARSED * Math.min(bytesParsed, fileLength) / fileLength);
+
+        if (totalBlocks > 0) {
+            progress += (int) ((MAXIMUM - PARSED) * indexed / totalBlocks);
+        }
+
+        job.progress(progress);
+
+        if (progress > shown) {
+            shown = progress;
+            int value = progress;
+            String note = String.format("Parsed %d of %d MB, indexed %d of %d blocks",
+                    bytesParsed / BYTES_PER_MEGABYTE, fileLength / BYTES_PER_MEGABYTE, indexed, totalBlocks);
+
+            SwingUtilities.invokeLater(() -> {
+                progressMonitor.setProgress(value);
+                progressMonitor.setNote(note);
+            });
+        }
+    }
+}
@@ -2,46 +2,99 @@ package org.codice.imaging.nitf.viewer;
 
 import org.codice.imaging.nitf.core.header.NitfHeader;
 import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.tiles.TileSource;
 
 import javax.swing.*;
+import javax.swing.event.InternalFrameAdapter;
+import javax.swing.event.InternalFrameEvent;
 import java.awt.*;
-import java.awt.image.BufferedImage;
 
 public class NitfInternalFrame extends JInternalFrame {
+    private static final String SEGMENT_INDEX = "segmentIndex";
+
     private TabPanelFactory tabPanelFactory;
 
     private NitfHeader fileHeader;
 
+    private OpenNitfFile openFile;
+
     private JTabbedPane jTabbedPane;
 
-    public NitfInternalFrame(NitfHeader fileHeader, TabPanelFactory tabPanelFactory) {
+    /**
+     * @param openFile the file the frame's images are decoded from, which the caller has already
+     * retained on the frame's behalf.
+     */
+    NitfInternalFrame(NitfHeader fileHeader, OpenNitfFile openFile, TabPanelFactory tabPanelFactory) {
         super(fileHeader.getFileTitle(), true, true, true, true);
         this.fileHeader = fileHeader;
+        this.openFile = openFile;
         this.tabPanelFactory = tabPanelFactory;
         this.jTabbedPane = new JTabbedPane();
+        this.jTabbedPane.addChangeListener(e -> {
+            if (jTabbedPane.getSelectedComponent() instanceof PropertiesImageTab) {
+                ((PropertiesImageTab) jTabbedPane.getSelectedComponent()).showImage();
+            }
+        });
+        this.addInternalFrameListener(new InternalFrameAdapter() {
+            @Override
+            public void internalFrameClosed(InternalFrameEvent e) {
+                for (int i = 0; i < jTabbedPane.getTabCount(); i++) {
+                    ((PropertiesImageTab) jTabbedPane.getComponentAt(i)).releaseTiles();
+                }
+            }
+        });
         this.getContentPane()
                 .add(jTabbedPane, BorderLayout.CENTER);
     }
 
-    public void addPropertiesImageTab(BufferedImage bufferedImage, ImageSegment imageSegment) {
+    void addPropertiesImageTab(TileSource tileSource, ImageSegment imageSegment) {
+        addPropertiesImageTab(tileSource, imageSegment, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds a tab for an image segment, in front of the tabs of any later segments, so that
+     * segments prepared in parallel still appear in file order.
+     */
+    void addPropertiesImageTab(TileSource tileSource, ImageSegment imageSegment, int segmentIndex) {
         String tabName = imageSegment.getIdentifier();
 
-        PropertiesImageTab propertiesImageTab = tabPanelFactory.createNitfImagePanel(bufferedImage,
+        PropertiesImageTab propertiesImageTab = tabPanelFactory.createNitfImagePanel(tileSource,
                 fileHeader,
                 imageSegment);
+        propertiesImageTab.putClientProperty(SEGMENT_INDEX, segmentIndex);
+
+        int tabIndex = 0;
+
+        while (tabIndex < jTabbedPane.getTabCount()
+                && getSegmentIndex(jTabbedPane.getComponentAt(tabIndex)) <= segmentIndex) {
+            tabIndex++;
+        }
 
         JPanel tab = tabPanelFactory.createTab(tabName);
-        jTabbedPane.addTab(tabName, propertiesImageTab);
-        jTabbedPane.setSelectedComponent(propertiesImageTab);
-        jTabbedPane.setTabComponentAt(jTabbedPane.getSelectedIndex(), tab);
+        jTabbedPane.insertTab(tabName, null, propertiesImageTab, null, tabIndex);
+        jTabbedPane.setTabComponentAt(tabIndex, tab);
+
+        // only the first image is shown straight away; the rest wait until their tab is selected
+        if (jTabbedPane.getSelectedComponent() == propertiesImageTab) {
+            propertiesImageTab.showImage();
+        }
 
         SwingUtilities.invokeLater(() -> propertiesImageTab.setDividerLocation(0.85d));
     }
 
+    private static int getSegmentIndex(Component component) {
+        Object segmentIndex = ((JComponent) component).getClientProperty(SEGMENT_INDEX);
+        return segmentIndex instanceof Integer ? (Integer) segmentIndex : Integer.MAX_VALUE;
+    }
+
     public NitfHeader getNitfFileHeader() {
         return this.fileHeader;
     }
 
+    OpenNitfFile getOpenFile() {
+        return this.openFile;
+    }
+
     public PropertiesImageTab getSelectedTab() {
         return (PropertiesImageTab) jTabbedPane.getSelectedComponent();
     }
@@ -0,0 +1,75 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.stream.ImageInputStream;
+
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+
+/**
+ * A parsed file that is still open because tiles are decoded from it on demand. The file's own
+ * frame, any chip frames cut from it, and the load while it is running each hold a reference.
+ * Only when the last of them lets go are the tiles of its images dropped from the TileCache and
+ * the file closed, so closing a frame never pulls the data out from under a chip that shares it.
+ */
+class OpenNitfFile {
+    private final ImageInputStream input;
+
+    private final List<ImageSegmentTileSource> tileSources = new ArrayList<>();
+
+    private int references = 1;
+
+    /**
+     * Opens the file with a single reference, held by the caller.
+     */
+    OpenNitfFile(ImageInputStream input) {
+        this.input = input;
+    }
+
+    ImageInputStream getInput() {
+        return input;
+    }
+
+    /**
+     * Adds an image whose tiles are released along with the file.
+     */
+    synchronized void addTileSource(ImageSegmentTileSource tileSource) {
+        tileSources.add(tileSource);
+    }
+
+    /**
+     * @throws IllegalStateException if the file has already been closed.
+     */
+    synchronized void retain() {
+        if (references == 0) {
+            throw new IllegalStateException("File has already been closed");
+        }
+
+        references++;
+    }
+
+    /**
+     * Lets go of a reference, closing the file if it was the last.
+     */
+    synchronized void release() throws IOException {
+        if (references == 0) {
+            return;
+        }
+
+        references--;
+
+        if (references == 0) {
+            for (ImageSegmentTileSource tileSource : tileSources) {
+                tileSource.releaseTiles();
+            }
+
+            tileSources.clear();
+            input.close();
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return references == 0;
+    }
+}
@@ -0,0 +1,168 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.codice.imaging.nitf.tiles.TileCache;
+import org.codice.imaging.nitf.tiles.TileKey;
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * Power-of-two reduced resolution versions of a tile source. Level n is 1/2^n the width and height
+ * of the full image and uses the same tile size, so each of its tiles is built by halving the
+ * four tiles below it. Overview tiles are built on first use and kept in the TileCache, so
+ * zooming out over a large image only decodes each full resolution tile once while they fit.
+ */
+class OverviewPyramid {
+    private final TileSource fullResolution;
+
+    private final TileSource[] levels;
+
+    OverviewPyramid(TileSource fullResolution) {
+        this.fullResolution = fullResolution;
+
+        int levelCount = 1;
+
+        while ((fullResolution.getWidth() >> (levelCount - 1)) > fullResolution.getTileWidth()
+                || (fullResolution.getHeight() >> (levelCount - 1)) > fullResolution.getTileHeight()) {
+            levelCount++;
+        }
+
+        levels = new TileSource[levelCount];
+        levels[0] = fullResolution;
+
+        for (int level = 1; level < levelCount; level++) {
+            levels[level] = new OverviewLevel(level);
+        }
+    }
+
+    int getLevelCount() {
+        return levels.length;
+    }
+
+    TileSource getLevel(int level) {
+        return levels[level];
+    }
+
+    void releaseTiles() {
+        TileCache.removeAll(this);
+    }
+
+    /**
+     * @return the coarsest level that still has at least one image pixel per screen pixel at the
+     * given scale.
+     */
+    int getLevelForScale(double scale) {
+        int level = 0;
+
+        while (level + 1 < levels.length && scale * (1 << (level + 1)) <= 1.0) {
+            level++;
+        }
+
+        return level;
+    }
+
+    /**
+     * Averaging pixels only makes sense for direct colour and grey images, so anything else is
+     * drawn into an ARGB overview.
+     */
+    private static int getOverviewType(BufferedImage image) {
+        switch (image.getType()) {
+        case BufferedImage.TYPE_BYTE_GRAY:
+        case BufferedImage.TYPE_USHORT_GRAY:
+        case BufferedImage.TYPE_3BYTE_BGR:
+        case BufferedImage.TYPE_INT_RGB:
+        case BufferedImage.TYPE_INT_BGR:
+            return image.getType();
+        default:
+            return BufferedImage.TYPE_INT_ARGB;
+        }
+    }
+
+    private class OverviewLevel implements TileSource {
+        private final int level;
+
+        OverviewLevel(int level) {
+            this.level = level;
+        }
+
+        @Override
+        public int getWidth() {
+            return Math.max(1, (fullResolution.getWidth() + (1 << level) - 1) >> level);
+        }
+
+        @Override
+        public int getHeight() {
+            return Math.max(1, (fullResolution.getHeight() + (1 << level) - 1) >> level);
+        }
+
+        @Override
+        public int getTileWidth() {
+            return fullResolution.getTileWidth();
+        }
+
+        @Override
+        public int getTileHeight() {
+            return fullResolution.getTileHeight();
+        }
+
+        @Override
+        public BufferedImage peekTile(int tileColumn, int tileRow) {
+            return TileCache.get(OverviewPyramid.this, new TileKey(level, tileColumn, tileRow));
+        }
+
+        @Override
+        public BufferedImage getTile(int tileColumn, int tileRow) throws IOException {
+            BufferedImage tile = peekTile(tileColumn, tileRow);
+
+            if (tile == null) {
+                tile = halve(levels[level - 1], tileColumn, tileRow);
+                TileCache.put(OverviewPyramid.this, new TileKey(level, tileColumn, tileRow), tile);
+            }
+
+            return tile;
+        }
+
+        private BufferedImage halve(TileSource below, int tileColumn, int tileRow) throws IOException {
+            BufferedImage tile = null;
+            Graphics2D graphics = null;
+
+            try {
+                for (int row = 0; row < 2; row++) {
+                    for (int column = 0; column < 2; column++) {
+                        int belowColumn = tileColumn * 2 + column;
+                        int belowRow = tileRow * 2 + row;
+
+                        if (belowColumn >= below.getTilesAcross() || belowRow >= below.getTilesDown()) {
+                            continue;
+                        }
+
+                        BufferedImage belowTile = below.getTile(belowColumn, belowRow);
+
+                        if (tile == null) {
+                            tile = new BufferedImage(getTileWidth(), getTileHeight(),
+                                    getOverviewType(belowTile));
+                            graphics = tile.createGraphics();
+                            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                        }
+
+                        int x = column * getTileWidth() / 2;
+                        int y = row * getTileHeight() / 2;
+                        graphics.drawImage(belowTile, x, y, x + (belowTile.getWidth() + 1) / 2,
+                                y + (belowTile.getHeight() + 1) / 2, 0, 0, belowTile.getWidth(),
+                                belowTile.getHeight(), null);
+                    }
+                }
+            } finally {
+                if (graphics != null) {
+                    graphics.dispose();
+                }
+            }
+
+            return tile;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.event.MouseAdapter;
@@ -16,40 +17,65 @@ import java.awt.event.MouseMotionAdapter;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+import org.codice.imaging.nitf.tiles.TileKey;
+import org.codice.imaging.nitf.tiles.TileSource;
 
 class   PaintSurface extends JComponent {
+    private static final int SELECTION_STROKE_WIDTH = 2;
+
     private Shape shape = null;
 
     private Point startDrag, endDrag;
 
-    private BufferedImage background;
+    private TileSource background;
+
+    private OverviewPyramid pyramid;
+
+    // tiles being decoded and tiles that couldn't be; only touched on the EDT
+    private Set<TileKey> pendingTiles = new HashSet<>();
+
+    private Set<TileKey> failedTiles = new HashSet<>();
+
+    private volatile int visibleLevel = 0;
+
+    private volatile Rectangle visibleTiles = new Rectangle();
 
     private AffineTransform at = AffineTransform.getScaleInstance(1.0, 1.0);
 
-    public PaintSurface(BufferedImage background) {
+    public PaintSurface(TileSource background) {
         this.background = background;
+        this.pyramid = new OverviewPyramid(background);
 
         this.addMouseListener(new MouseAdapter() {
             public void mousePressed(MouseEvent e) {
                 startDrag = new Point(e.getX(), e.getY());
                 endDrag = startDrag;
-                repaint();
+                repaintOutline(getDragRectangle());
             }
 
             public void mouseReleased(MouseEvent e) {
+                Shape previousShape = shape;
                 Shape r = makeRectangle(startDrag.x, startDrag.y, e.getX(), e.getY());
                 shape = r;
                 startDrag = null;
                 endDrag = null;
-                repaint();
+                repaintAround(previousShape);
+                repaintAround(shape);
             }
         });
 
         this.addMouseMotionListener(new MouseMotionAdapter() {
             public void mouseDragged(MouseEvent e) {
+                Shape previousDrag = getDragRectangle();
                 endDrag = new Point(e.getX(), e.getY());
-                repaint();
+                repaintOutline(previousDrag);
+                repaintOutline(getDragRectangle());
             }
         });
     }
@@ -60,10 +86,10 @@ class   PaintSurface extends JComponent {
         g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
                 RenderingHints.VALUE_INTERPOLATION_BICUBIC);
 
-        g2.drawRenderedImage(background, at);
+        paintTiles(g2);
 
         if (shape != null) {
-            g2.setStroke(new BasicStroke(2));
+            g2.setStroke(new BasicStroke(SELECTION_STROKE_WIDTH));
             g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.30f));
             g2.setPaint(Color.BLACK);
             g2.draw(shape);
@@ -73,9 +99,167 @@ class   PaintSurface extends JComponent {
 
         if (startDrag != null && endDrag != null) {
             g2.setPaint(Color.WHITE);
-            Shape r = makeRectangle(startDrag.x, startDrag.y, endDrag.x, endDrag.y);
-            g2.draw(r);
+            g2.draw(getDragRectangle());
+        }
+    }
+
+    private Shape getDragRectangle() {
+        if (startDrag == null || endDrag == null) {
+            return null;
+        }
+
+        return makeRectangle(startDrag.x, startDrag.y, endDrag.x, endDrag.y);
+    }
+
+    /**
+     * Repaints the area a selection covers, for when its fill changes.
+     */
+    private void repaintAround(Shape selection) {
+        if (selection != null) {
+            Rectangle bounds = selection.getBounds();
+            bounds.grow(SELECTION_STROKE_WIDTH, SELECTION_STROKE_WIDTH);
+            repaint(bounds);
+        }
+    }
+
+    /**
+     * Asks for the four edges of a drag outline to be repainted, each as a strip a few pixels wide.
+     * The RepaintManager coalesces these with the strips of the previous outline into a single
+     * paint, rather than the drag event painting each strip itself.
+     */
+    private void repaintOutline(Shape outline) {
+        if (outline == null) {
+            return;
+        }
+
+        Rectangle bounds = outline.getBounds();
+        int margin = SELECTION_STROKE_WIDTH;
+        int width = bounds.width + 2 * margin + 1;
+        int height = bounds.height + 2 * margin + 1;
+
+        repaint(new Rectangle(bounds.x - margin, bounds.y - margin, width, 2 * margin + 1));
+        repaint(new Rectangle(bounds.x - margin, bounds.y + bounds.height - margin, width, 2 * margin + 1));
+        repaint(new Rectangle(bounds.x - margin, bounds.y - margin, 2 * margin + 1, height));
+        repaint(new Rectangle(bounds.x + bounds.width - margin, bounds.y - margin, 2 * margin + 1, height));
+    }
+
+    /**
+     * Draws the decoded tiles that intersect the clip and queues the missing ones for decoding.
+     * Tiles come from the overview level closest to the current scale, so that the work done per
+     * repaint depends on the size of the view rather than the size of the image. Decoded tiles
+     * are held by the TileCache.
+     */
+    private void paintTiles(Graphics2D g2) {
+        int level = pyramid.getLevelForScale(at.getScaleX());
+        Rectangle visible = getTilesIntersecting(level, getVisibleRect());
+        visibleLevel = level;
+        visibleTiles = visible;
+
+        TileSource levelSource = pyramid.getLevel(level);
+        double levelScale = at.getScaleX() * (1 << level);
+        Rectangle clip = g2.getClipBounds();
+        Rectangle toPaint = getTilesIntersecting(level, clip != null ? clip : getVisibleRect());
+        Graphics2D tileGraphics = (Graphics2D) g2.create();
+        tileGraphics.clip(new Rectangle(0, 0, (int) Math.ceil(background.getWidth() * at.getScaleX()),
+                (int) Math.ceil(background.getHeight() * at.getScaleY())));
+
+        for (int row = toPaint.y; row < toPaint.y + toPaint.height; row++) {
+            for (int column = toPaint.x; column < toPaint.x + toPaint.width; column++) {
+                TileKey key = new TileKey(level, column, row);
+
+                if (failedTiles.contains(key)) {
+                    continue;
+                }
+
+                BufferedImage tile = levelSource.peekTile(column, row);
+
+                if (tile == null) {
+                    tileGraphics.setPaint(Color.DARK_GRAY);
+                    tileGraphics.fill(getTileBounds(key));
+                    requestTile(key);
+                } else {
+                    AffineTransform tileTransform = AffineTransform.getScaleInstance(levelScale, levelScale);
+                    tileTransform.translate(column * levelSource.getTileWidth(),
+                            row * levelSource.getTileHeight());
+                    tileGraphics.drawRenderedImage(tile, tileTransform);
+                }
+            }
         }
+
+        tileGraphics.dispose();
+    }
+
+    /**
+     * @return the columns and rows of the tiles of an overview level that intersect an area of
+     * this component.
+     */
+    private Rectangle getTilesIntersecting(int level, Rectangle area) {
+        TileSource levelSource = pyramid.getLevel(level);
+        double levelScale = at.getScaleX() * (1 << level);
+        double tileWidth = levelSource.getTileWidth() * levelScale;
+        double tileHeight = levelSource.getTileHeight() * levelScale;
+        int firstColumn = Math.max(0, (int) (area.x / tileWidth));
+        int firstRow = Math.max(0, (int) (area.y / tileHeight));
+        int lastColumn = Math.min(levelSource.getTilesAcross() - 1, (int) ((area.x + area.width) / tileWidth));
+        int lastRow = Math.min(levelSource.getTilesDown() - 1, (int) ((area.y + area.height) / tileHeight));
+
+        return new Rectangle(firstColumn, firstRow, Math.max(0, lastColumn - firstColumn + 1),
+                Math.max(0, lastRow - firstRow + 1));
+    }
+
+    private Rectangle getTileBounds(TileKey key) {
+        TileSource levelSource = pyramid.getLevel(key.getLevel());
+        double levelScale = at.getScaleX() * (1 << key.getLevel());
+        double tileWidth = levelSource.getTileWidth() * levelScale;
+        double tileHeight = levelSource.getTileHeight() * levelScale;
+        int x = (int) Math.floor(key.getColumn() * tileWidth);
+        int y = (int) Math.floor(key.getRow() * tileHeight);
+
+        return new Rectangle(x, y, (int) Math.ceil((key.getColumn() + 1) * tileWidth) - x,
+                (int) Math.ceil((key.getRow() + 1) * tileHeight) - y);
+    }
+
+    private void requestTile(TileKey key) {
+        if (!pendingTiles.add(key)) {
+            return;
+        }
+
+        RenderExecutor.execute(() -> {
+            boolean failed = false;
+
+            // the view may have moved on while this tile was queued
+            if (visibleLevel == key.getLevel()
+                    && visibleTiles.contains(key.getColumn(), key.getRow())) {
+                try {
+                    pyramid.getLevel(key.getLevel()).getTile(key.getColumn(), key.getRow());
+                } catch (IOException | RuntimeException e) {
+                    e.printStackTrace();
+                    failed = true;
+                }
+            }
+
+            boolean decodeFailed = failed;
+
+            SwingUtilities.invokeLater(() -> {
+                pendingTiles.remove(key);
+
+                if (decodeFailed) {
+                    failedTiles.add(key);
+                }
+
+                if (key.getLevel() == visibleLevel) {
+                    repaint(getTileBounds(key));
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops this surface's overview tiles from the TileCache. The tiles of the image itself belong
+     * to the tab that shows it.
+     */
+    void releaseTiles() {
+        pyramid.releaseTiles();
     }
 
     private Shape translateShape() {
@@ -96,16 +280,36 @@ class   PaintSurface extends JComponent {
         return new Rectangle2D.Double(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x1 - x2), Math.abs(y1 - y2));
     }
 
-    public BufferedImage getSelectedAreaImage () {
-        Rectangle2D bounds = this.shape.getBounds();
+    /**
+     * @return the selection in image coordinates, clipped to the image, or null if nothing is
+     * selected.
+     */
+    public Rectangle getSelectedArea() {
+        if (this.shape == null) {
+            return null;
+        }
 
-        return background.getSubimage((int) (bounds.getX() * (1 / at.getScaleX())),
+        Rectangle2D bounds = this.shape.getBounds();
+        Rectangle selectedArea = new Rectangle((int) (bounds.getX() * (1 / at.getScaleX())),
                 (int) (bounds.getY() * (1 / at.getScaleY())),
                 (int) (bounds.getWidth() * (1 / at.getScaleX())),
-                (int) (bounds.getHeight() * (1 / at.getScaleY())));
+                (int) (bounds.getHeight() * (1 / at.getScaleY())))
+                .intersection(new Rectangle(0, 0, background.getWidth(), background.getHeight()));
+
+        return selectedArea.isEmpty() ? null : selectedArea;
+    }
+
+    /**
+     * @return the whole image from the coarsest overview level with at least the given scale.
+     * Overview tiles already built for display are reused, so this is quick once the image has
+     * been viewed zoomed out; otherwise the tiles below are decoded, so call it off the EDT.
+     */
+    BufferedImage getOverviewImage(double scale) throws IOException {
+        TileSource levelSource = pyramid.getLevel(pyramid.getLevelForScale(scale));
+        return levelSource.read(new Rectangle(0, 0, levelSource.getWidth(), levelSource.getHeight()));
     }
 
-    public BufferedImage getBackgroundImage() {
+    TileSource getTileSource() {
         return this.background;
     }
 
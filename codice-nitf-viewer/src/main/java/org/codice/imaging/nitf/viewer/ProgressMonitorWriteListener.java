@@ -0,0 +1,69 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.io.InterruptedIOException;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+
+/**
+ * Shows an ImageIO writer's progress, which it reports as it finishes each strip or tile, in a
+ * ProgressMonitor running from 0 to 100 and in the write's job. Cancelling either aborts the
+ * write.
+ */
+class ProgressMonitorWriteListener implements IIOWriteProgressListener {
+    private final ProgressMonitor progressMonitor;
+
+    private final Job job;
+
+    ProgressMonitorWriteListener(ProgressMonitor progressMonitor, Job job) {
+        this.progressMonitor = progressMonitor;
+        this.job = job;
+    }
+
+    @Override
+    public void imageStarted(ImageWriter source, int imageIndex) {
+        setProgress(0);
+    }
+
+    @Override
+    public void imageProgress(ImageWriter source, float percentageDone) {
+        if (progressMonitor.isCanceled()) {
+            job.cancel();
+        }
+
+        try {
+            job.progress((long) percentageDone);
+        } catch (InterruptedIOException e) {
+            source.abort();
+        }
+
+        setProgress((int) percentageDone);
+    }
+
+    @Override
+    public void imageComplete(ImageWriter source) {
+        setProgress(progressMonitor.getMaximum());
+    }
+
+    @Override
+    public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailProgress(ImageWriter source, float percentageDone) {
+    }
+
+    @Override
+    public void thumbnailComplete(ImageWriter source) {
+    }
+
+    @Override
+    public void writeAborted(ImageWriter source) {
+        SwingUtilities.invokeLater(progressMonitor::close);
+    }
+
+    private void setProgress(int progress) {
+        SwingUtilities.invokeLater(() -> progressMonitor.setProgress(progress));
+    }
+}
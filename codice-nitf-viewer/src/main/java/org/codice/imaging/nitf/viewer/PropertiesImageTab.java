@@ -7,27 +7,31 @@ import org.codice.imaging.nitf.core.image.ImageCoordinates;
 import org.codice.imaging.nitf.core.image.ImageSegment;
 import org.codice.imaging.nitf.core.security.FileSecurityMetadata;
 import org.codice.imaging.nitf.core.tre.Tre;
-import org.codice.imaging.nitf.core.tre.TreEntry;
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+import org.codice.imaging.nitf.tiles.TileCache;
+import org.codice.imaging.nitf.tiles.TileSource;
 
 import javax.swing.*;
-import java.awt.image.BufferedImage;
-import java.util.List;
 import java.util.function.Supplier;
 
 public class PropertiesImageTab extends JSplitPane {
 
     private ImagePanel imagePanel;
 
+    private TileSource tileSource;
+
     private ImageSegment imageSegment;
 
     private static final String[] HEADERS = {"Property", "Value"};
 
-    public PropertiesImageTab(final BufferedImage bufferedImage, final NitfHeader fileHeader,
+    private static final String TRE = "tre";
+
+    public PropertiesImageTab(final TileSource tileSource, final NitfHeader fileHeader,
             final ImageSegment imageSegment) {
         super(JSplitPane.HORIZONTAL_SPLIT);
 
         this.imageSegment = imageSegment;
-        this.imagePanel = new ImagePanel(bufferedImage, 400);
+        this.tileSource = tileSource;
         JTable imageProperties = getImagePropertyTable();
         JScrollPane imagePropertiesScrollPane = new JScrollPane(imageProperties);
         JTabbedPane imagePropertiesTab = new JTabbedPane();
@@ -46,33 +50,33 @@ public class PropertiesImageTab extends JSplitPane {
         propertiesPane.setTopComponent(imagePropertiesTab);
         propertiesPane.setBottomComponent(filePropertiesTab);
 
-        this.setLeftComponent(imagePanel);
+        this.setLeftComponent(new JLabel("Select this tab to view the image.", SwingConstants.CENTER));
         this.setRightComponent(propertiesPane);
 
         SwingUtilities.invokeLater(() -> propertiesPane.setDividerLocation(0.7d));
     }
 
+    /**
+     * Adds an empty tab for each TRE, and fills a tab with its table only when it is first
+     * selected, so that files with hundreds of TREs don't build hundreds of tables.
+     */
     private void addTreTabs(TaggedRecordExtensionHandler taggedRecordExtensionHandler, JTabbedPane imagePropertiesTab) {
-        taggedRecordExtensionHandler.getTREsRawStructure().getTREs().stream()
-                .forEach(tre -> {
-                    String[][] treData = convertTreToStringArray2D(tre);
-                    JTable tabProperties = new JTable(treData, HEADERS);
-                    JScrollPane treScrollPane = new JScrollPane(tabProperties);
-                    imagePropertiesTab.addTab(tre.getName(), treScrollPane);
-                });
-    }
-
-    private static String[][] convertTreToStringArray2D(Tre tre) {
-        List<TreEntry> treEntryList = tre.getEntries();
-        String[][] treData = new String[treEntryList.size()][2];
-
-        for (int i = 0; i < treEntryList.size(); i++) {
-            TreEntry treEntry = treEntryList.get(i);
-            treData[i][0] = treEntry.getName();
-            treData[i][1] = treEntry.getFieldValue();
+        for (Tre tre : taggedRecordExtensionHandler.getTREsRawStructure().getTREs()) {
+            JScrollPane treScrollPane = new JScrollPane();
+            treScrollPane.putClientProperty(TRE, tre);
+            imagePropertiesTab.addTab(tre.getName(), treScrollPane);
         }
 
-        return treData;
+        imagePropertiesTab.addChangeListener(e -> {
+            if (imagePropertiesTab.getSelectedComponent() instanceof JScrollPane) {
+                JScrollPane treScrollPane = (JScrollPane) imagePropertiesTab.getSelectedComponent();
+                Object tre = treScrollPane.getClientProperty(TRE);
+
+                if (tre instanceof Tre && treScrollPane.getViewport().getView() == null) {
+                    treScrollPane.setViewportView(new JTable(new TreTableModel((Tre) tre)));
+                }
+            }
+        });
     }
 
     private static JTable getFilePropertyTable(NitfHeader header) {
@@ -148,7 +152,36 @@ public class PropertiesImageTab extends JSplitPane {
         return this.imageSegment;
     }
 
+    /**
+     * Creates the image panel the first time the tab is shown, so that opening a file with many
+     * image segments only builds the panels that are looked at.
+     */
+    void showImage() {
+        if (imagePanel == null) {
+            imagePanel = new ImagePanel(tileSource, 400);
+            int dividerLocation = getDividerLocation();
+            this.setLeftComponent(imagePanel);
+            setDividerLocation(dividerLocation);
+        }
+    }
+
+    /**
+     * Drops this tab's decoded tiles from the TileCache once the tab is closed. The tiles of an
+     * image segment may still be drawn by chips cut from it, so they are left to the OpenNitfFile,
+     * which drops them when the file closes.
+     */
+    void releaseTiles() {
+        if (!(tileSource instanceof ImageSegmentTileSource)) {
+            TileCache.removeAll(tileSource);
+        }
+
+        if (imagePanel != null) {
+            imagePanel.getPaintSurface().releaseTiles();
+        }
+    }
+
     public ImagePanel getImagePanel() {
+        showImage();
         return imagePanel;
     }
 }
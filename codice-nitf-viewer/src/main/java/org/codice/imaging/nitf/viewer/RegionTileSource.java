@@ -0,0 +1,88 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.codice.imaging.nitf.tiles.TileCache;
+import org.codice.imaging.nitf.tiles.TileKey;
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * A rectangle of another tile source, such as a chip. Nothing is copied up front: each tile is
+ * assembled from the source tiles under it when it is first needed, so a chip of a huge image
+ * only ever decodes the source blocks it covers.
+ */
+class RegionTileSource implements TileSource {
+    private final TileSource source;
+
+    private final Rectangle region;
+
+    RegionTileSource(TileSource source, Rectangle region) {
+        this.source = source;
+        this.region = region.intersection(new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+    }
+
+    TileSource getSource() {
+        return source;
+    }
+
+    Rectangle getRegion() {
+        return new Rectangle(region);
+    }
+
+    /**
+     * @return the region in the coordinates of the underlying image, which differ from those of
+     * the source when this is a chip of a chip.
+     */
+    Rectangle getImageRegion() {
+        Rectangle imageRegion = getRegion();
+
+        if (source instanceof RegionTileSource) {
+            Rectangle sourceRegion = ((RegionTileSource) source).getImageRegion();
+            imageRegion.translate(sourceRegion.x, sourceRegion.y);
+        }
+
+        return imageRegion;
+    }
+
+    @Override
+    public int getWidth() {
+        return Math.max(region.width, 1);
+    }
+
+    @Override
+    public int getHeight() {
+        return Math.max(region.height, 1);
+    }
+
+    @Override
+    public int getTileWidth() {
+        return source.getTileWidth();
+    }
+
+    @Override
+    public int getTileHeight() {
+        return source.getTileHeight();
+    }
+
+    @Override
+    public BufferedImage peekTile(int tileColumn, int tileRow) {
+        return TileCache.get(this, new TileKey(0, tileColumn, tileRow));
+    }
+
+    @Override
+    public BufferedImage getTile(int tileColumn, int tileRow) throws IOException {
+        BufferedImage tile = peekTile(tileColumn, tileRow);
+
+        if (tile == null) {
+            Rectangle tileRegion = new Rectangle(region.x + tileColumn * getTileWidth(),
+                    region.y + tileRow * getTileHeight(), getTileWidth(), getTileHeight())
+                    .intersection(region);
+            tile = source.read(tileRegion);
+            TileCache.put(this, new TileKey(0, tileColumn, tileRow), tile);
+        }
+
+        return tile;
+    }
+}
@@ -0,0 +1,45 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads that decode imagery for every open frame, one per core so that decoding several
+ * tiles at once doesn't starve the EDT or thrash the heap. Preparing segments, which for JPEG
+ * images means reading through all of their data, runs on a separate pool of half as many
+ * threads, so that opening a file with many segments can't hold up the tiles being painted.
+ */
+final class RenderExecutor {
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PROCESSORS,
+            createThreadFactory("render-"));
+
+    private static final ExecutorService PREPARE_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, PROCESSORS / 2), createThreadFactory("prepare-"));
+
+    private RenderExecutor() {
+    }
+
+    private static ThreadFactory createThreadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    static <T> Future<T> prepare(Callable<T> task) {
+        return PREPARE_EXECUTOR.submit(task);
+    }
+}
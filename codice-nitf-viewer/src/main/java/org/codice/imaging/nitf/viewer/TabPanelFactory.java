@@ -3,7 +3,6 @@ package org.codice.imaging.nitf.viewer;
 import java.awt.FlowLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
 import java.net.URL;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
@@ -13,6 +12,7 @@ import javax.swing.JTabbedPane;
 
 import org.codice.imaging.nitf.core.header.NitfHeader;
 import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.tiles.TileSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -22,10 +22,10 @@ class TabPanelFactory {
     @Autowired
     private ViewManager ViewManager;
 
-    PropertiesImageTab createNitfImagePanel(final BufferedImage bufferedImage,
+    PropertiesImageTab createNitfImagePanel(final TileSource tileSource,
             final NitfHeader fileHeader, final ImageSegment header) {
 
-        return new PropertiesImageTab(bufferedImage, fileHeader, header);
+        return new PropertiesImageTab(tileSource, fileHeader, header);
     }
 
     JPanel createTab(String tabName) {
@@ -47,7 +47,9 @@ class TabPanelFactory {
             public void mouseClicked(MouseEvent e) {
                 System.out.println("closing...");
                 JTabbedPane jTabbedPane = ViewManager.getActiveInternalFrame().getjTabbedPane();
-                jTabbedPane.remove(jTabbedPane.indexOfTabComponent(panel));
+                int tabIndex = jTabbedPane.indexOfTabComponent(panel);
+                ((PropertiesImageTab) jTabbedPane.getComponentAt(tabIndex)).releaseTiles();
+                jTabbedPane.remove(tabIndex);
             }
 
             public void mousePressed(MouseEvent e) {
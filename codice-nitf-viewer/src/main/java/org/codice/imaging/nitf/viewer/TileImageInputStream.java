@@ -0,0 +1,133 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+import org.codice.imaging.nitf.tiles.ProgressListener;
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * The pixels of a tile source as uncompressed 8 bit NITF image data with one block per tile, so
+ * that an image can be written out while only one of its tiles is held in memory. Monochrome
+ * sources give one band; anything else gives red, green and blue bands, pixel interleaved within
+ * each block. Tiles at the right and bottom edges are padded with zeros to a whole block.
+ */
+class TileImageInputStream extends ImageInputStreamImpl {
+    private final TileSource source;
+
+    private final int bands;
+
+    private final int bytesPerBlock;
+
+    private final long length;
+
+    private final byte[] block;
+
+    private int blockIndex = -1;
+
+    private ProgressListener progressListener = null;
+
+    /**
+     * @param bands 1 for monochrome or 3 for RGB.
+     */
+    TileImageInputStream(TileSource source, int bands) {
+        this.source = source;
+        this.bands = bands;
+        this.bytesPerBlock = source.getTileWidth() * source.getTileHeight() * bands;
+        this.length = (long) bytesPerBlock * source.getTilesAcross() * source.getTilesDown();
+        this.block = new byte[bytesPerBlock];
+    }
+
+    /**
+     * @return 1 if the source's tiles are 8 bit grey, otherwise 3.
+     */
+    static int getBands(TileSource source) throws IOException {
+        BufferedImage tile = source.getTile(0, 0);
+
+        return tile.getRaster().getNumBands() == 1 && tile.getSampleModel().getSampleSize(0) == Byte.SIZE
+                ? 1 : 3;
+    }
+
+    /**
+     * @param progressListener told the number of each block as it is read, counting from 1.
+     */
+    void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        loadBlock((int) (streamPos / bytesPerBlock));
+        return block[(int) (streamPos++ % bytesPerBlock)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (streamPos >= length) {
+            return -1;
+        }
+
+        bitOffset = 0;
+        loadBlock((int) (streamPos / bytesPerBlock));
+        int withinBlock = (int) (streamPos % bytesPerBlock);
+        int available = Math.min(count, bytesPerBlock - withinBlock);
+        System.arraycopy(block, withinBlock, buffer, offset, available);
+        streamPos += available;
+        return available;
+    }
+
+    private void loadBlock(int index) throws IOException {
+        if (index == blockIndex) {
+            return;
+        }
+
+        if (progressListener != null) {
+            progressListener.progress(index + 1);
+        }
+
+        BufferedImage tile = source.getTile(index % source.getTilesAcross(),
+                index / source.getTilesAcross());
+        int blockWidth = source.getTileWidth();
+        int width = Math.min(tile.getWidth(), blockWidth);
+        int height = Math.min(tile.getHeight(), source.getTileHeight());
+        Raster raster = tile.getRaster();
+        int[] row = new int[width];
+
+        Arrays.fill(block, (byte) 0);
+
+        for (int y = 0; y < height; y++) {
+            int position = y * blockWidth * bands;
+
+            if (bands == 1) {
+                raster.getSamples(0, y, width, 1, 0, row);
+
+                for (int x = 0; x < width; x++) {
+                    block[position++] = (byte) row[x];
+                }
+            } else {
+                tile.getRGB(0, y, width, 1, row, 0, width);
+
+                for (int x = 0; x < width; x++) {
+                    block[position++] = (byte) (row[x] >> 16);
+                    block[position++] = (byte) (row[x] >> 8);
+                    block[position++] = (byte) row[x];
+                }
+            }
+        }
+
+        blockIndex = index;
+    }
+}
@@ -0,0 +1,58 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * Writes a tile source to a PNG or TIFF file a strip or tile at a time, so that saving an image
+ * never needs a full copy of it in memory. TIFFs are written tiled on the source's own tile grid.
+ */
+final class TileImageWriter {
+    private TileImageWriter() {
+    }
+
+    /**
+     * @param formatName "png" or "tiff".
+     * @param listener told of progress as the writer works through the image; may abort it.
+     */
+    static void write(TileSource source, String formatName, File file, IIOWriteProgressListener listener)
+            throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+
+        if (!writers.hasNext()) {
+            throw new IOException("No writer for " + formatName);
+        }
+
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+
+        if (param.canWriteTiles()) {
+            param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setTiling(source.getTileWidth(), source.getTileHeight(), 0, 0);
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Couldn't replace " + file);
+        }
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(output);
+            writer.addIIOWriteProgressListener(listener);
+            writer.write(null, new IIOImage(new TileSourceImage(source), null, null), param);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Vector;
+
+import org.codice.imaging.nitf.tiles.TileSource;
+
+/**
+ * A tile source seen as a RenderedImage, so that ImageIO writers can pull it a strip or tile at a
+ * time instead of being handed a copy of the whole image. RenderedImage methods can't throw
+ * IOException, so decoding failures are thrown as UncheckedIOException.
+ */
+class TileSourceImage implements RenderedImage {
+    private final TileSource source;
+
+    private final ColorModel colorModel;
+
+    private final SampleModel sampleModel;
+
+    TileSourceImage(TileSource source) throws IOException {
+        BufferedImage firstTile = source.getTile(0, 0);
+
+        this.source = source;
+        this.colorModel = firstTile.getColorModel();
+        this.sampleModel = firstTile.getSampleModel().createCompatibleSampleModel(source.getTileWidth(),
+                source.getTileHeight());
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return colorModel;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return sampleModel;
+    }
+
+    @Override
+    public int getWidth() {
+        return source.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return source.getHeight();
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return source.getTilesAcross();
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return source.getTilesDown();
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return source.getTileWidth();
+    }
+
+    @Override
+    public int getTileHeight() {
+        return source.getTileHeight();
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        try {
+            return source.getTile(tileX, tileY).getRaster()
+                    .createTranslatedChild(tileX * getTileWidth(), tileY * getTileHeight());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, getWidth(), getHeight()));
+    }
+
+    @Override
+    public Raster getData(Rectangle region) {
+        Rectangle bounds = region.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+
+        try {
+            return source.read(bounds).getRaster().createTranslatedChild(bounds.x, bounds.y);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        if (raster == null) {
+            raster = colorModel.createCompatibleWritableRaster(getWidth(), getHeight());
+        }
+
+        raster.setRect(getData(raster.getBounds()));
+        return raster;
+    }
+}
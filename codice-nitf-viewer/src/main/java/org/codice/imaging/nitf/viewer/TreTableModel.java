@@ -0,0 +1,42 @@
+package org.codice.imaging.nitf.viewer;
+
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.codice.imaging.nitf.core.tre.TreEntry;
+
+/**
+ * The fields of a TRE, read straight from its entries as the table asks for them rather than
+ * copied into an array up front.
+ */
+class TreTableModel extends AbstractTableModel {
+    private static final String[] HEADERS = {"Property", "Value"};
+
+    private final List<TreEntry> entries;
+
+    TreTableModel(Tre tre) {
+        this.entries = tre.getEntries();
+    }
+
+    @Override
+    public int getRowCount() {
+        return entries.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return HEADERS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return HEADERS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        TreEntry entry = entries.get(row);
+        return column == 0 ? entry.getName() : entry.getFieldValue();
+    }
+}
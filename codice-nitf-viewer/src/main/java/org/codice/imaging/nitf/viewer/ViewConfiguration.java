@@ -81,6 +81,11 @@ public class ViewConfiguration {
         return new TabPanelFactory();
     }
 
+    @Bean
+    public JobRegistry jobRegistry() {
+        return new JobRegistry();
+    }
+
     @Bean
     public ViewManager nitfGuiManager() {
         return new ViewManager();
@@ -114,6 +119,10 @@ public class ViewConfiguration {
         chipItem.addActionListener(e -> nitfGuiManager().createChip("Chip"));
         tabMenu.add(chipItem);
 
+        JMenuItem saveChipItem = new JMenuItem("Save Chip as NITF", KeyEvent.VK_N);
+        saveChipItem.addActionListener(e -> nitfGuiManager().saveChipAsNitf());
+        tabMenu.add(saveChipItem);
+
         tabMenu.add(zoomMenu());
 
         return tabMenu;
@@ -127,6 +136,9 @@ public class ViewConfiguration {
         openItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_O, ActionEvent.ALT_MASK));
         openItem.addActionListener(e -> nitfGuiManager().openFile());
         fileMenu.add(openItem);
+        JMenuItem jobsItem = new JMenuItem("Jobs", KeyEvent.VK_J);
+        jobsItem.addActionListener(e -> nitfGuiManager().showJobs());
+        fileMenu.add(jobsItem);
         JMenuItem exitItem = new JMenuItem("Exit", KeyEvent.VK_X);
         exitItem.addActionListener(e -> System.exit(0));
         fileMenu.add(exitItem);
@@ -5,28 +5,37 @@ import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.core.header.NitfHeader;
 import org.codice.imaging.nitf.core.image.ImageSegment;
 import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
-import org.codice.imaging.nitf.render.NitfRenderer;
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+import org.codice.imaging.nitf.tiles.MappedFileImageInputStream;
+import org.codice.imaging.nitf.tiles.ProgressListener;
+import org.codice.imaging.nitf.tiles.TileSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.event.InternalFrameAdapter;
+import javax.swing.event.InternalFrameEvent;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyVetoException;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 public class ViewManager {
     private static final int MAX_CHIP_ZOOM = 1200;
 
-    private static Set<ProgressMonitor> runningMonitors = new HashSet<>();
+    private static final int THUMBNAIL_SIZE = 200;
 
     @Autowired
     private JDesktopPane desktopPane;
@@ -40,46 +49,10 @@ public class ViewManager {
     @Autowired
     private JTextArea logPanel;
 
-    static void startProgressMonitor(ProgressMonitor progressMonitor, int initialProgress,
-            int maxIncrement) {
-        runningMonitors.add(progressMonitor);
-        Random random = new Random();
-
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-
-            @Override
-            protected Void doInBackground() throws Exception {
-                ThreadLocal<Integer> progress = new ThreadLocal<>();
-                progress.set(initialProgress);
-
-                while (!progressMonitor.isCanceled() && runningMonitors.contains(progressMonitor)) {
-                    progressMonitor.setProgress(progress.get());
-                    Thread.sleep(500);
-                    progress.set(progress.get() + random.nextInt(maxIncrement) + 1);
-                }
-
-                if (runningMonitors.contains(progressMonitor)) {
-                    runningMonitors.remove(progressMonitor);
-                }
-
-                progressMonitor.setProgress(progressMonitor.getMaximum());
-                return null;
-            }
-        };
-
-        worker.execute();
-    }
-
-    static void haltProgressMonitor(ProgressMonitor progressMonitor) {
+    @Autowired
+    private JobRegistry jobRegistry;
 
-        SwingUtilities.invokeLater(() -> {
-            if (runningMonitors.contains(progressMonitor)) {
-                runningMonitors.remove(progressMonitor);
-            }
-
-            progressMonitor.setProgress(progressMonitor.getMaximum());
-        });
-    }
+    private JInternalFrame jobsFrame;
 
     public NitfInternalFrame getActiveInternalFrame() {
         NitfInternalFrame internalFrame = (NitfInternalFrame) desktopPane.getSelectedFrame();
@@ -91,32 +64,114 @@ public class ViewManager {
         return propertiesImageTab.getImagePanel().getPaintSurface();
     }
 
+    /**
+     * Opens the selected area in a new frame. The chip shares the tiles of the image it was cut
+     * from and decodes only the source blocks it covers, at full resolution, as they are drawn.
+     */
     public void createChip(String chipName) {
-        BufferedImage selectedArea = getSelectedAreaImage();
+        PaintSurface activePaintSurface = getActivePaintSurface();
+        Rectangle selectedArea = activePaintSurface.getSelectedArea();
+
+        if (selectedArea == null) {
+            warning("Select an area of the image to create a chip.");
+            return;
+        }
+
         NitfInternalFrame nitfInternalFrame = getActiveInternalFrame();
         PropertiesImageTab activeTab = nitfInternalFrame.getSelectedTab();
 
         NitfHeader nitfFileHeader = nitfInternalFrame.getNitfFileHeader();
         ImageSegment imageSegment = activeTab.getImageSegment();
 
-        NitfInternalFrame chipInternalFrame = prepareNewFrame(nitfFileHeader);
-        chipInternalFrame.addPropertiesImageTab(selectedArea, imageSegment);
+        NitfInternalFrame chipInternalFrame = prepareNewFrame(nitfFileHeader, nitfInternalFrame.getOpenFile());
+        chipInternalFrame.addPropertiesImageTab(
+                new RegionTileSource(activePaintSurface.getTileSource(), selectedArea), imageSegment);
     }
 
-    private BufferedImage getSelectedAreaImage() {
+    /**
+     * Writes the selected area, or if nothing is selected the chip shown in the active tab, to a
+     * new NITF.
+     */
+    public void saveChipAsNitf() {
         PaintSurface activePaintSurface = getActivePaintSurface();
-        BufferedImage bi = activePaintSurface.getSelectedAreaImage();
-        return bi;
+        Rectangle selectedArea = activePaintSurface.getSelectedArea();
+        TileSource tileSource = activePaintSurface.getTileSource();
+        RegionTileSource chip;
+
+        if (selectedArea != null) {
+            chip = new RegionTileSource(tileSource, selectedArea);
+        } else if (tileSource instanceof RegionTileSource) {
+            chip = (RegionTileSource) tileSource;
+        } else {
+            warning("Select an area of the image or a chip to save.");
+            return;
+        }
+
+        fileChooser.setDialogTitle("Save chip (.ntf)");
+        FileFilter fileFilter = new FileNameExtensionFilter("NITF File", "ntf", "NTF");
+        fileChooser.setFileFilter(fileFilter);
+        int c = fileChooser.showSaveDialog(desktopPane);
+
+        if (c == JFileChooser.APPROVE_OPTION) {
+            File outputFile = fileChooser.getSelectedFile();
+            NitfInternalFrame nitfInternalFrame = getActiveInternalFrame();
+            NitfHeader nitfFileHeader = nitfInternalFrame.getNitfFileHeader();
+            ImageSegment imageSegment = nitfInternalFrame.getSelectedTab().getImageSegment();
+            info("Saving chip: " + outputFile.getName());
+            Job job = jobRegistry.start(Job.Kind.CHIP, outputFile.getName(),
+                    (long) chip.getTilesAcross() * chip.getTilesDown());
+
+            SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+                @Override
+                protected Void doInBackground() {
+                    try {
+                        List<String> droppedTres = ChipNitfWriter.write(chip, nitfFileHeader, imageSegment,
+                                outputFile, job);
+
+                        if (!droppedTres.isEmpty()) {
+                            warning("Chip left out TREs that describe the whole image: "
+                                    + String.join(", ", droppedTres));
+                        }
+
+                        info("Chip saved.");
+                    } catch (IOException | RuntimeException e) {
+                        if (job.isCancelled()) {
+                            outputFile.delete();
+                            info("Chip save cancelled.");
+                        } else {
+                            error("Couldn't save chip: " + e.getMessage());
+                        }
+                    } finally {
+                        finish(job);
+                    }
+
+                    return null;
+                }
+            };
+
+            worker.execute();
+        }
+
+        fileChooser.removeChoosableFileFilter(fileFilter);
     }
 
+    /**
+     * Saves the active image as a PNG, or as a tiled TIFF if a TIFF file is chosen. The image is
+     * written a strip or tile at a time straight from its tiles, and the progress shown is the
+     * writer's own.
+     */
     public void saveCurrentTabImage() {
-        fileChooser.setDialogTitle("Save image (.png)");
-        FileFilter fileFilter = new FileNameExtensionFilter("PNG File", "png", "PNG");
-        fileChooser.setFileFilter(fileFilter);
+        fileChooser.setDialogTitle("Save image (.png, .tif)");
+        FileFilter pngFilter = new FileNameExtensionFilter("PNG File", "png", "PNG");
+        FileFilter tiffFilter = new FileNameExtensionFilter("TIFF File", "tif", "tiff", "TIF", "TIFF");
+        fileChooser.addChoosableFileFilter(tiffFilter);
+        fileChooser.setFileFilter(pngFilter);
         int c = fileChooser.showSaveDialog(desktopPane);
 
         if (c == JFileChooser.APPROVE_OPTION) {
             File outputFile = fileChooser.getSelectedFile();
+            String formatName = fileChooser.getFileFilter() == tiffFilter
+                    || outputFile.getName().toLowerCase().matches(".*\\.tiff?") ? "tiff" : "png";
             info("Saving file: " + outputFile.getName());
 
             ProgressMonitor progressMonitor = new ProgressMonitor(desktopPane,
@@ -124,15 +179,29 @@ public class ViewManager {
                     "",
                     0,
                     100);
-            BufferedImage bi = getActivePaintSurface().getBackgroundImage();
-            startProgressMonitor(progressMonitor, 1, 25);
+            TileSource tileSource = getActivePaintSurface().getTileSource();
+            Job job = jobRegistry.start(Job.Kind.SAVE, outputFile.getName(), 100);
 
             SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
                 @Override
-                protected Void doInBackground() throws IOException {
-                    ImageIO.write(bi, "png", outputFile);
-                    haltProgressMonitor(progressMonitor);
-                    info("File saved.");
+                protected Void doInBackground() {
+                    try {
+                        TileImageWriter.write(tileSource, formatName, outputFile,
+                                new ProgressMonitorWriteListener(progressMonitor, job));
+
+                        if (job.isCancelled()) {
+                            outputFile.delete();
+                            info("Save cancelled.");
+                        } else {
+                            info("File saved.");
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        error("Couldn't save file: " + e.getMessage());
+                    } finally {
+                        SwingUtilities.invokeLater(progressMonitor::close);
+                        finish(job);
+                    }
+
                     return null;
                 }
             };
@@ -140,7 +209,8 @@ public class ViewManager {
             worker.execute();
         }
 
-        fileChooser.removeChoosableFileFilter(fileFilter);
+        fileChooser.removeChoosableFileFilter(pngFilter);
+        fileChooser.removeChoosableFileFilter(tiffFilter);
     }
 
     public void createThumbnail() {
@@ -154,23 +224,23 @@ public class ViewManager {
         int c = fileChooser.showSaveDialog(desktopPane);
 
         if (c == JFileChooser.APPROVE_OPTION) {
-            ProgressMonitor progressMonitor = new ProgressMonitor(desktopPane,
-                    "Creating thumbnail...",
-                    "",
-                    0,
-                    250);
-
-            BufferedImage bi = getActivePaintSurface().getBackgroundImage();
+            PaintSurface paintSurface = getActivePaintSurface();
+            File thumbnailFile = fileChooser.getSelectedFile();
+            Job job = jobRegistry.start(Job.Kind.THUMBNAIL, thumbnailFile.getName(), 0);
 
             SwingWorker<Void, Void> worker = new SwingWorker() {
-                protected Object doInBackground() {
-                    info("Creating thumbnail: " + fileChooser.getSelectedFile()
-                            .getName());
-                    startProgressMonitor(progressMonitor, 10, 3);
-                    createThumbnail(bi, fileChooser.getSelectedFile());
-
-                    haltProgressMonitor(progressMonitor);
-                    info("Thumbnail created.");
+                protected Object doInBackground() throws IOException {
+                    info("Creating thumbnail: " + thumbnailFile.getName());
+
+                    try {
+                        createThumbnail(paintSurface, thumbnailFile, job);
+                        info(job.isCancelled() ? "Thumbnail cancelled." : "Thumbnail created.");
+                    } catch (IOException | RuntimeException e) {
+                        error("Couldn't create thumbnail: " + e.getMessage());
+                    } finally {
+                        finish(job);
+                    }
+
                     return null;
                 }
             };
@@ -181,80 +251,206 @@ public class ViewManager {
         fileChooser.removeChoosableFileFilter(fileFilter);
     }
 
-    private void createThumbnail(BufferedImage bi, File thumbnailFile) {
-        File tempFile = null;
-
-        try {
-            tempFile = File.createTempFile(thumbnailFile.getName(), ".tmp");
-            ImageIO.write(bi, "jpg", tempFile);
-
-            Thumbnails.of(tempFile)
-                    .size(200, 200)
-                    .outputFormat("jpg")
-                    .toFile(fileChooser.getSelectedFile());
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            if (tempFile.exists()) {
-                tempFile.delete();
-            }
+    /**
+     * Shrinks the smallest overview level that is still at least thumbnail sized, rather than
+     * the full resolution image.
+     */
+    private void createThumbnail(PaintSurface paintSurface, File thumbnailFile, Job job) throws IOException {
+        TileSource tileSource = paintSurface.getTileSource();
+        double scale = Math.min(1.0, (double) THUMBNAIL_SIZE
+                / Math.max(tileSource.getWidth(), tileSource.getHeight()));
+        BufferedImage overviewImage = paintSurface.getOverviewImage(scale);
+
+        if (job.isCancelled()) {
+            return;
         }
+
+        Thumbnails.of(overviewImage)
+                .size(THUMBNAIL_SIZE, THUMBNAIL_SIZE)
+                .imageType(BufferedImage.TYPE_INT_RGB)
+                .outputFormat("jpg")
+                .toFile(thumbnailFile);
     }
 
+    /**
+     * Parses a file and prepares its images, showing how many bytes have been parsed and how
+     * many blocks indexed. Cancelling the progress monitor stops both, and closes the frame so
+     * that everything loaded so far can be collected. The file stays open for as long as its
+     * frame, or any chip cut from it, does, since tiles are decoded from it on demand.
+     */
     private void parseAndRender(File nitfRgbFile) {
 
         ProgressMonitor progressMonitor = new ProgressMonitor(desktopPane,
                 "Loading File: " + nitfRgbFile.getName(),
                 "",
                 0,
-                100);
+                LoadProgress.MAXIMUM);
+        Job job = jobRegistry.start(Job.Kind.LOAD, nitfRgbFile.getName(), LoadProgress.MAXIMUM);
+        LoadProgress progress = new LoadProgress(progressMonitor, job, nitfRgbFile.length());
 
         ThreadLocal<NitfInternalFrame> nitfInternalFrame = new ThreadLocal<NitfInternalFrame>();
+        List<Future<?>> preparedSegments = new ArrayList<>();
+        OpenNitfFile openFile = null;
 
         try {
-            startProgressMonitor(progressMonitor, 0, 5);
             info("Parsing file: " + nitfRgbFile.getName());
+            MappedFileImageInputStream input = new MappedFileImageInputStream(nitfRgbFile);
+            openFile = new OpenNitfFile(input);
+            input.setProgressListener(progress::bytesParsed);
+            OpenNitfFile file = openFile;
             new NitfParserInputFlowImpl()
-                    .file(nitfRgbFile)
+                    .imageInputStream(input)
                     .allData()
-                    .fileHeader(header -> nitfInternalFrame.set(prepareNewFrame(header)))
-                    .forEachImageSegment((segment) -> {
-                        NitfRenderer renderer = new NitfRenderer();
-                        BufferedImage img = null;
-
-                        try {
-                            if (segment.getData() != null) {
-                                img = renderer.render(segment);
-                            }
-
-                            nitfInternalFrame.get().addPropertiesImageTab(img, segment);
-                        } catch (IOException | UnsupportedOperationException e) {
-                            img = new BufferedImage(10,
-                                    10,
-                                    BufferedImage.TYPE_INT_ARGB);
-                            nitfInternalFrame.get().addPropertiesImageTab(img, segment);
-                            error("Couldn't parseAndRender image: " + e.getMessage());
-                        }
-                    });
+                    .fileHeader(header -> nitfInternalFrame.set(prepareNewFrameOnEdt(header, file)))
+                    .forEachImageSegment((segment) -> preparedSegments.add(
+                            prepareSegment(nitfInternalFrame.get(), segment, file, preparedSegments.size(),
+                                    progress)));
+            input.setProgressListener(null);
+
+            for (Future<?> preparedSegment : preparedSegments) {
+                preparedSegment.get();
+            }
 
-            info("File parsed and rendered.");
-        } catch (FileNotFoundException e) {
-            error("Couldn't parse file: " + e.getMessage());
-        } catch (NitfFormatException e) {
-            e.printStackTrace();
+            info("File parsed.");
+        } catch (IOException | NitfFormatException | ExecutionException e) {
+            if (progress.isCancelled()) {
+                abandonLoad(nitfInternalFrame.get(), preparedSegments);
+                info("Loading cancelled: " + nitfRgbFile.getName());
+            } else if (e instanceof IOException) {
+                error("Couldn't parse file: " + e.getMessage());
+            } else {
+                e.printStackTrace();
+            }
+        } catch (CancellationException e) {
+            abandonLoad(nitfInternalFrame.get(), preparedSegments);
+            info("Loading cancelled: " + nitfRgbFile.getName());
+        } catch (IllegalStateException e) {
+            abandonLoad(nitfInternalFrame.get(), preparedSegments);
+            error("Couldn't load file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
-            haltProgressMonitor(progressMonitor);
+            // the frame, if there is one, holds its own reference
+            if (openFile != null) {
+                releaseFile(openFile);
+            }
+
+            progress.done();
+            finish(job);
+        }
+    }
+
+    private void releaseFile(OpenNitfFile openFile) {
+        try {
+            openFile.release();
+        } catch (IOException e) {
+            warning("Couldn't close file: " + e.getMessage());
+        }
+    }
+
+    private void finish(Job job) {
+        long elapsedMillis = jobRegistry.finish(job);
+        info(String.format("%s of %s took %.1f s", job.getKind(), job.getDescription(),
+                elapsedMillis / 1000.0));
+    }
+
+    /**
+     * Shows the running jobs, bringing the jobs frame to the front if it is already open.
+     */
+    public void showJobs() {
+        if (jobsFrame == null || jobsFrame.isClosed()) {
+            jobsFrame = new JInternalFrame("Jobs", true, true, true, true);
+            jobsFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            jobsFrame.getContentPane().add(new JobsPanel(jobRegistry));
+            jobsFrame.setSize(500, 250);
+            desktopPane.add(jobsFrame);
+            jobsFrame.setVisible(true);
+        }
+
+        try {
+            jobsFrame.setSelected(true);
+        } catch (PropertyVetoException e) {
+            e.printStackTrace();
         }
     }
 
-    private double getPresumableFreeMemory() {
-        long allocatedMemory = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime()
-                .freeMemory());
-        return Runtime.getRuntime().maxMemory() - allocatedMemory;
+    private void abandonLoad(NitfInternalFrame nitfInternalFrame, List<Future<?>> preparedSegments) {
+        for (Future<?> preparedSegment : preparedSegments) {
+            preparedSegment.cancel(true);
+        }
+
+        if (nitfInternalFrame != null) {
+            SwingUtilities.invokeLater(nitfInternalFrame::dispose);
+        }
     }
 
-    private NitfInternalFrame prepareNewFrame(NitfHeader nitfFileHeader) {
-        NitfInternalFrame internalFrame = new NitfInternalFrame(nitfFileHeader, tabPanelFactory);
+    /**
+     * Prepares an image segment for display on the preparation threads, then adds its tab on the EDT.
+     * Segments are prepared in parallel and their tabs appear as they become ready.
+     */
+    private Future<?> prepareSegment(NitfInternalFrame nitfInternalFrame, ImageSegment segment,
+            OpenNitfFile openFile, int segmentIndex, LoadProgress progress) {
+        ProgressListener segmentListener = progress.segmentListener(
+                (long) segment.getNumberOfBlocksPerRow() * segment.getNumberOfBlocksPerColumn());
+
+        return RenderExecutor.prepare(() -> {
+            ImageSegmentTileSource tileSource = new ImageSegmentTileSource(segment, openFile.getInput());
+            openFile.addTileSource(tileSource);
+
+            try {
+                tileSource.prepare(segmentListener);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (!progress.isCancelled()) {
+                    error("Couldn't prepare image " + segment.getIdentifier() + ": " + e.getMessage());
+                }
+            }
+
+            if (!progress.isCancelled()) {
+                SwingUtilities.invokeLater(() -> nitfInternalFrame.addPropertiesImageTab(tileSource,
+                        segment, segmentIndex));
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Creates the frame for a file being parsed on the EDT, waiting for it so that the frame
+     * exists before any of its segments are prepared.
+     *
+     * @throws IllegalStateException if the frame couldn't be created.
+     * @throws CancellationException if the parse thread was interrupted while waiting for it.
+     */
+    private NitfInternalFrame prepareNewFrameOnEdt(NitfHeader nitfFileHeader, OpenNitfFile openFile) {
+        AtomicReference<NitfInternalFrame> internalFrame = new AtomicReference<>();
+
+        try {
+            SwingUtilities.invokeAndWait(() -> internalFrame.set(prepareNewFrame(nitfFileHeader, openFile)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while creating a frame");
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Couldn't create a frame: " + e.getCause(), e.getCause());
+        }
+
+        return internalFrame.get();
+    }
+
+    /**
+     * Creates a frame for images decoded from a file, which keeps the file open until the frame
+     * is closed.
+     */
+    private NitfInternalFrame prepareNewFrame(NitfHeader nitfFileHeader, OpenNitfFile openFile) {
+        openFile.retain();
+        NitfInternalFrame internalFrame = new NitfInternalFrame(nitfFileHeader, openFile, tabPanelFactory);
+        internalFrame.addInternalFrameListener(new InternalFrameAdapter() {
+            @Override
+            public void internalFrameClosed(InternalFrameEvent e) {
+                releaseFile(openFile);
+            }
+        });
         desktopPane.add(internalFrame);
         internalFrame.setVisible(true);
 
@@ -291,7 +487,6 @@ public class ViewManager {
 
                         parseAndRender(path);
                         long endTime = System.currentTimeMillis();
-                        System.gc();
                     } catch (Throwable t) {
                         System.err.println(t.getMessage());
                         t.printStackTrace();
@@ -0,0 +1,121 @@
+package org.codice.imaging.nitf.viewer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.nitfbuilder.ImageSegmentCreationFlow;
+import org.codice.imaging.nitf.tiles.ImageSegmentTileSource;
+import org.codice.imaging.nitf.tiles.MappedFileImageInputStream;
+import org.codice.imaging.nitf.tiles.TileCache;
+import org.codice.imaging.nitf.tiles.TileKey;
+import org.junit.Test;
+
+public class OpenNitfFileTest {
+    private static final int BLOCK_SIZE = 8;
+
+    private static final int BLOCKS = 2;
+
+    @Test
+    public void testChipOutlivesParent() throws IOException {
+        File file = createFile();
+
+        try (MappedFileImageInputStream input = new MappedFileImageInputStream(file)) {
+            // the load's reference
+            OpenNitfFile openFile = new OpenNitfFile(input);
+            ImageSegmentTileSource parent = new ImageSegmentTileSource(createSegment(input), input);
+            openFile.addTileSource(parent);
+
+            // the parent frame, then the chip frame
+            openFile.retain();
+            openFile.retain();
+            openFile.release();
+
+            parent.getTile(1, 1);
+            RegionTileSource chip = new RegionTileSource(parent, new Rectangle(4, 4, 8, 8));
+
+            // closing the parent frame leaves the file open and its tiles cached for the chip
+            openFile.release();
+            assertFalse(openFile.isClosed());
+            assertNotNull(TileCache.get(parent, new TileKey(0, 1, 1)));
+
+            BufferedImage tile = chip.getTile(0, 0);
+            assertEquals(0, tile.getRaster().getSample(0, 0, 0));
+            assertEquals(3, tile.getRaster().getSample(7, 7, 0));
+
+            // closing the chip frame closes the file
+            openFile.release();
+            assertTrue(openFile.isClosed());
+            assertNull(TileCache.get(parent, new TileKey(0, 1, 1)));
+
+            try {
+                input.read();
+                fail("Read from a closed file");
+            } catch (IOException e) {
+                // expected
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * @return an 8 bit image of 2 x 2 blocks, each filled with its block number.
+     */
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("open-nitf", ".dat");
+        byte[] data = new byte[BLOCK_SIZE * BLOCK_SIZE * BLOCKS * BLOCKS];
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i / (BLOCK_SIZE * BLOCK_SIZE));
+        }
+
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private static ImageSegment createSegment(MappedFileImageInputStream input) throws IOException {
+        return new ImageSegmentCreationFlow()
+                .identifier("test")
+                .rows(BLOCK_SIZE * BLOCKS)
+                .columns(BLOCK_SIZE * BLOCKS)
+                .pixelValueType(PixelValueType.INTEGER)
+                .representation(ImageRepresentation.MONOCHROME)
+                .category(ImageCategory.VISUAL)
+                .actualBitsPerPixelPerBand(8)
+                .bitsPerPixelPerBand(8)
+                .pixelJustification(PixelJustification.RIGHT)
+                .coordinateRepresentation(ImageCoordinatesRepresentation.NONE)
+                .compression(ImageCompression.NOTCOMPRESSED)
+                .mode(ImageMode.BLOCKINTERLEVE)
+                .blocksPerRow(BLOCKS)
+                .blocksPerColumn(BLOCKS)
+                .pixelsPerBlockHorizontal(BLOCK_SIZE)
+                .pixelsPerBlockVertical(BLOCK_SIZE)
+                .fileType(FileType.NITF_TWO_ONE)
+                .securityMetadata(() -> null)
+                .band(new ImageBandImpl())
+                .imageData(input)
+                .imageDataLength(input.length())
+                .get();
+    }
+}